@@ -4,4 +4,15 @@ public interface IResourceTransformer {
 
     byte[] transform(String resourcePath, byte[] original);
 
-}
\ No newline at end of file
+    /**
+     * Glob patterns of the resource paths this transformer wants to see, e.g. {@code assets/minecraft/lang/*.lang}.
+     * {@code *} matches within a path segment, {@code **} across segments. Resources not matched by any
+     * transformer are streamed straight from the classpath without being read into memory.
+     *
+     * @return Resource path patterns, or {@code null} to see every resource
+     */
+    default String[] getResourcePatterns() {
+        return null;
+    }
+
+}
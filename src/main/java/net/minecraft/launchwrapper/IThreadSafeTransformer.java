@@ -0,0 +1,11 @@
+package net.minecraft.launchwrapper;
+
+/**
+ * Marker for {@link IClassTransformer}s that keep no per-class state and may be called from several threads at once.
+ * When {@code legacy.parallelTransform} is enabled, {@link LaunchClassLoader#prefetchClasses(java.util.Collection)}
+ * runs the leading thread-safe part of the transformer chain off-thread; everything after the first transformer
+ * without this marker still runs serially on the loading thread.
+ */
+public interface IThreadSafeTransformer extends IClassTransformer {
+
+}
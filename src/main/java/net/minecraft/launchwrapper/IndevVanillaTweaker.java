@@ -3,6 +3,7 @@ package net.minecraft.launchwrapper;
 import java.io.File;
 import java.util.List;
 
+@TweakOrder(concurrent = true)
 public class IndevVanillaTweaker implements ITweaker {
     private List<String> args;
 
@@ -1,16 +1,26 @@
 package net.minecraft.launchwrapper;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.Level;
 
@@ -19,10 +29,16 @@ import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
 import net.minecraft.launchwrapper.protocol.LegacyProtocolURLStreamHandlerFactory;
 import net.minecraft.launchwrapper.utils.classpath.Classpath;
+import net.minecraft.launchwrapper.utils.classpath.ClasspathHits;
+import net.minecraft.launchwrapper.utils.snapshot.LaunchSnapshot;
+import net.minecraft.launchwrapper.utils.timeline.StartupTimeline;
 
 public class Launch {
 	
 	private static final String DEFAULT_TWEAK = "net.minecraft.launchwrapper.VanillaTweaker";
+	private static final String SNAPSHOT_FILE = "launch_snapshot.json";
+	private static final String CLASSPATH_HITS_FILE = "classpath_hits.json";
+	private static final boolean PARALLEL_TWEAKERS = Boolean.parseBoolean(System.getProperty("legacy.parallelTweakers", "true"));
 	/**
      * The game dir of Minecraft.
      */
@@ -46,16 +62,73 @@ public class Launch {
      */
 	public static LaunchClassLoader classLoader;
 
+	private ExecutorService tweakExecutor;
+	private String snapshotKey;
+	private LaunchSnapshot snapshot;
+	private URL[] classpath;
+	private final StartupTimeline timeline = StartupTimeline.get();
+
 	private Launch() {
 		URL.setURLStreamHandlerFactory(new LegacyProtocolURLStreamHandlerFactory());
 
-		// Try fancy hack
-		classLoader = new LaunchClassLoader(Classpath.getClasspath());		
-		
-		blackboard = new HashMap<String, Object>();
+		blackboard = Collections.synchronizedMap(new HashMap<String, Object>());
+		// Tweakers may add their own spans
+		blackboard.put("StartupTimeline", timeline);
+	}
+
+	/**
+	 * Creates the class loader, from the launch snapshot's classpath if it matches this launch.
+	 */
+	private void createClassLoader() {
+		URL[] classpath = null;
+		final ClasspathHits classpathHits = ClasspathHits.load(new File(minecraftHome, CLASSPATH_HITS_FILE));
+		try (StartupTimeline.Span span = timeline.begin("classpath")) {
+			if (snapshot != null) {
+				try {
+					classpath = snapshot.getClasspath();
+				} catch (MalformedURLException e) {
+					LogWrapper.warning("Launch snapshot has an invalid classpath", e);
+					snapshot = null;
+				}
+			}
+			if (classpath == null) {
+				// Try fancy hack
+				classpath = Classpath.getClasspath(new File(minecraftHome, "classpath_resolver.properties"));
+			}
+			// The snapshot is taken on the first launch, before there are any hits, so it gets reordered as well
+			classpath = classpathHits.reorder(classpath);
+		}
+		this.classpath = classpath;
+
+		try (StartupTimeline.Span span = timeline.begin("classLoader")) {
+			classLoader = new LaunchClassLoader(classpath, classpathHits);
+		}
+		LogWrapper.addShutdownTask(() -> {
+			try {
+				classpathHits.save(new File(minecraftHome, CLASSPATH_HITS_FILE), this.classpath);
+			} catch (IOException e) {
+				LogWrapper.warning("Failed to save classpath hits", e);
+			}
+		});
+		if (snapshot != null) {
+			LogWrapper.info("Restoring launch snapshot {}", snapshot.key);
+			snapshot.restore(classLoader);
+		}
 		Thread.currentThread().setContextClassLoader(classLoader);
 	}
 
+	private void saveSnapshot(Collection<String> tweakClasses) {
+		final LaunchSnapshot current = LaunchSnapshot.capture(snapshotKey, classpath, tweakClasses, classLoader);
+		if (snapshot != null && snapshot.sameState(current)) {
+			return;
+		}
+		try {
+			current.save(new File(minecraftHome, SNAPSHOT_FILE));
+		} catch (IOException e) {
+			LogWrapper.warning("Failed to save launch snapshot", e);
+		}
+	}
+
 	private void launch(String[] args) {
 		final OptionParser parser = new OptionParser();
 		parser.allowsUnrecognizedOptions();
@@ -70,9 +143,17 @@ public class Launch {
 		minecraftHome = options.valueOf(gameDirOption);
 		assetsDir = options.valueOf(assetsDirOption);
 		final String profileName = options.valueOf(profileOption);
-		final List<String> tweakClassNames = new ArrayList<String>(options.valuesOf(tweakClassOption));
 
-		final List<String> argumentList = new ArrayList<String>();
+		if (LaunchSnapshot.ENABLED) {
+			snapshotKey = LaunchSnapshot.computeKey(args, minecraftHome);
+			snapshot = LaunchSnapshot.load(new File(minecraftHome, SNAPSHOT_FILE), snapshotKey);
+		}
+		createClassLoader();
+
+		// Synchronized, as concurrent tweakers may push onto these while being initialized
+		final List<String> tweakClassNames = Collections.synchronizedList(new ArrayList<String>(options.valuesOf(tweakClassOption)));
+
+		final List<String> argumentList = Collections.synchronizedList(new ArrayList<String>());
 		// This list of names will be interacted with through tweakers. They can append to this list
 		// any 'discovered' tweakers from their preferred mod loading mechanism
 		// By making this object discoverable and accessible it's possible to perform
@@ -84,11 +165,11 @@ public class Launch {
 		blackboard.put("ArgumentList", argumentList);
 
 		// This is to prevent duplicates - in case a tweaker decides to add itself or something
-		final Set<String> allTweakerNames = new HashSet<String>();
+		final Set<String> allTweakerNames = new LinkedHashSet<String>();
 		// The 'definitive' list of tweakers
 		final List<ITweaker> allTweakers = new ArrayList<ITweaker>();
 		try {
-			final List<ITweaker> tweakers = new ArrayList<ITweaker>(tweakClassNames.size() + 1);
+			final List<ITweaker> tweakers = Collections.synchronizedList(new ArrayList<ITweaker>(tweakClassNames.size() + 1));
 			// The list of tweak instances - may be useful for interoperability
 			blackboard.put("Tweaks", tweakers);
 			// The primary tweaker (the first one specified on the command line) will actually
@@ -98,64 +179,134 @@ public class Launch {
 			// that reinserts itself with a new identity every pass
 			// It is here to allow tweakers to "push" new tweak classes onto the 'stack' of
 			// tweakers to evaluate allowing for cascaded discovery and injection of tweakers
-			do {
-				for (final Iterator<String> it = tweakClassNames.iterator(); it.hasNext(); ) {
-					final String tweakName = it.next();
-					// Safety check - don't reprocess something we've already visited
-					if (allTweakerNames.contains(tweakName)) {
-						LogWrapper.warning("Tweak class name {} has already been visited -- skipping", tweakName);
-						// remove the tweaker from the stack otherwise it will create an infinite loop
+			try {
+				do {
+					// Collect this pass of tweak classes
+					final List<String> passNames = new ArrayList<String>(tweakClassNames.size());
+					for (final Iterator<String> it = tweakClassNames.iterator(); it.hasNext(); ) {
+						final String tweakName = it.next();
+						// Remove the tweaker from the list of tweaker names we've processed this pass
 						it.remove();
-						continue;
-					} else {
-						allTweakerNames.add(tweakName);
+						// Safety check - don't reprocess something we've already visited
+						if (allTweakerNames.contains(tweakName)) {
+							LogWrapper.warning("Tweak class name {} has already been visited -- skipping", tweakName);
+							continue;
+						} else {
+							allTweakerNames.add(tweakName);
+						}
+						LogWrapper.info("Loading tweak class name {}", tweakName);
+
+						// Ensure we allow the tweak class to load with the parent classloader
+						classLoader.getClassLoaderExclusions().add(tweakName.substring(0, tweakName.lastIndexOf('.')));
+						passNames.add(tweakName);
+					}
+
+					final Map<String, TweakOrder> orders = new HashMap<String, TweakOrder>();
+					for (final String tweakName : passNames) {
+						orders.put(tweakName, Class.forName(tweakName, false, classLoader).getAnnotation(TweakOrder.class));
 					}
-					LogWrapper.info("Loading tweak class name {}", tweakName);
 
-					// Ensure we allow the tweak class to load with the parent classloader
-					//classLoader.addClassLoaderExclusion(tweakName.substring(0, tweakName.lastIndexOf('.'))); // TODO
-					classLoader.getClassLoaderExclusions().add(tweakName.substring(0, tweakName.lastIndexOf('.')));
-					//final ITweaker tweaker = (ITweaker) Class.forName(tweakName, true, classLoader).newInstance(); // TODO
-					final ITweaker tweaker = (ITweaker) Class.forName(tweakName, true, classLoader).getConstructor().newInstance();
-					tweakers.add(tweaker);
+					// Construct the tweakers, independent concurrent ones at the same time
+					final List<List<String>> groups = groupTweakers(sortTweakers(passNames, orders), orders);
+					final Map<String, ITweaker> instances = new HashMap<String, ITweaker>();
+					for (final List<String> group : groups) {
+						final List<Callable<ITweaker>> constructors = new ArrayList<Callable<ITweaker>>(group.size());
+						for (final String tweakName : group) {
+							constructors.add(() -> {
+								try (StartupTimeline.Span span = timeline.begin("tweaker.construct:" + tweakName)) {
+									return (ITweaker) Class.forName(tweakName, true, classLoader).getConstructor().newInstance();
+								}
+							});
+						}
+						final List<ITweaker> constructed = runGroup(constructors);
+						for (int i = 0; i < group.size(); i++) {
+							instances.put(group.get(i), constructed.get(i));
+							tweakers.add(constructed.get(i));
+						}
+					}
 
-					// Remove the tweaker from the list of tweaker names we've processed this pass
-					it.remove();
 					// If we haven't visited a tweaker yet, the first will become the 'primary' tweaker
-					if (primaryTweaker == null) {
-						LogWrapper.info("Using primary tweak class name {}", tweakName);
-						primaryTweaker = tweaker;
+					if (primaryTweaker == null && !passNames.isEmpty()) {
+						LogWrapper.info("Using primary tweak class name {}", passNames.get(0));
+						primaryTweaker = instances.get(passNames.get(0));
 					}
+
+					// Now, iterate all the tweakers we just instantiated
+					while (!tweakers.isEmpty()) {
+						// remove from the list once we've processed it, so we don't get duplicates
+						final List<ITweaker> group = takeTweakGroup(tweakers);
+						if (group.size() == 1) {
+							final ITweaker tweaker = group.get(0);
+							LogWrapper.info("Calling tweak class {}", tweaker.getClass().getName());
+							acceptOptions(tweaker, options.valuesOf(nonOption), profileName);
+							injectIntoClassLoader(tweaker);
+							allTweakers.add(tweaker);
+							continue;
+						}
+
+						final int queuedTweakClasses = tweakClassNames.size();
+						final List<Callable<ITweaker>> acceptors = new ArrayList<Callable<ITweaker>>(group.size());
+						for (final ITweaker tweaker : group) {
+							acceptors.add(() -> {
+								LogWrapper.info("Calling tweak class {}", tweaker.getClass().getName());
+								acceptOptions(tweaker, options.valuesOf(nonOption), profileName);
+								return tweaker;
+							});
+						}
+						for (final ITweaker tweaker : runGroup(acceptors)) {
+							injectIntoClassLoader(tweaker);
+							allTweakers.add(tweaker);
+						}
+						// Concurrent tweakers queue in any order, keep the next pass deterministic
+						synchronized (tweakClassNames) {
+							Collections.sort(tweakClassNames.subList(queuedTweakClasses, tweakClassNames.size()));
+						}
+					}
+					// continue around the loop until there's no tweak classes
+				} while (!tweakClassNames.isEmpty());
+			} finally {
+				if (tweakExecutor != null) {
+					tweakExecutor.shutdown();
+					tweakExecutor = null;
 				}
+			}
 
-				// Now, iterate all the tweakers we just instantiated
-				while(!tweakers.isEmpty()) {
-					// remove from the list once we've processed it, so we don't get duplicates	
-                    final ITweaker tweaker = tweakers.remove(0);
-					LogWrapper.info("Calling tweak class {}", tweaker.getClass().getName());
-					tweaker.acceptOptions(options.valuesOf(nonOption), minecraftHome, assetsDir, profileName);
-					tweaker.injectIntoClassLoader(classLoader);
-					allTweakers.add(tweaker);				
+			// The transformer chain is complete now, transform the classes of earlier launches ahead of time
+			classLoader.prefetchKnownClasses();
+
+			try (StartupTimeline.Span span = timeline.begin("arguments")) {
+				// Once we're done, we then ask all the tweakers for their arguments and add them all to the
+				// master argument list
+				for (final ITweaker tweaker : allTweakers) {
+					argumentList.addAll(Arrays.asList(tweaker.getLaunchArguments()));
 				}
-				// continue around the loop until there's no tweak classes
-			} while (!tweakClassNames.isEmpty());
 
-			// Once we're done, we then ask all the tweakers for their arguments and add them all to the
-			// master argument list
-			for (final ITweaker tweaker : allTweakers) {
-				argumentList.addAll(Arrays.asList(tweaker.getLaunchArguments()));
+				// Tweak arguments as required.
+				for (final ITweaker tweaker : allTweakers) {
+					if (tweaker instanceof IArgumentTweaker)
+						((IArgumentTweaker) tweaker).modifyArguments(argumentList);
+				}
 			}
-			
-			// Tweak arguments as required.
-			for (final ITweaker tweaker : allTweakers) {
-                if (tweaker instanceof IArgumentTweaker)
-                    ((IArgumentTweaker) tweaker).modifyArguments(argumentList);
-            }
+
+			classLoader.onTweakersDone();
 
 			// Finally we turn to the primary tweaker, and let it tell us where to go to launch
 			final String launchTarget = primaryTweaker.getLaunchTarget();
-			final Class<?> clazz = Class.forName(launchTarget, false, classLoader);
-			final Method mainMethod = clazz.getMethod("main", new Class[]{String[].class});
+			final Method mainMethod;
+			try (StartupTimeline.Span span = timeline.begin("mainClass")) {
+				final Class<?> clazz = Class.forName(launchTarget, false, classLoader);
+				mainMethod = clazz.getMethod("main", new Class[]{String[].class});
+			}
+
+			if (snapshotKey != null) {
+				saveSnapshot(allTweakerNames);
+			}
+
+			try {
+				timeline.write(new File(minecraftHome, "startup_timeline.json"));
+			} catch (IOException e) {
+				LogWrapper.warning("Failed to write startup timeline", e);
+			}
 
 			LogWrapper.info("Launching wrapped minecraft {{}}", launchTarget);
 			mainMethod.invoke(null, (Object) argumentList.toArray(new String[argumentList.size()]));
@@ -164,4 +315,128 @@ public class Launch {
 			throw new IllegalStateException("Unable to launch", e);
 		}
 	}
+
+	private void acceptOptions(ITweaker tweaker, List<String> args, String profileName) {
+		try (StartupTimeline.Span span = timeline.begin("tweaker.acceptOptions:" + tweaker.getClass().getName())) {
+			tweaker.acceptOptions(args, minecraftHome, assetsDir, profileName);
+		}
+	}
+
+	private void injectIntoClassLoader(ITweaker tweaker) {
+		try (StartupTimeline.Span span = timeline.begin("tweaker.injectIntoClassLoader:" + tweaker.getClass().getName())) {
+			tweaker.injectIntoClassLoader(classLoader);
+		}
+	}
+
+	/**
+	 * Stable topological sort of a pass of tweak classes by their {@link TweakOrder#after()} constraints.
+	 */
+	private static List<String> sortTweakers(List<String> passNames, Map<String, TweakOrder> orders) {
+		final List<String> sorted = new ArrayList<String>(passNames.size());
+		final List<String> remaining = new ArrayList<String>(passNames);
+		while (!remaining.isEmpty()) {
+			boolean placed = false;
+			for (final Iterator<String> it = remaining.iterator(); it.hasNext(); ) {
+				final String tweakName = it.next();
+				if (dependsOnAny(orders.get(tweakName), remaining)) {
+					continue;
+				}
+				sorted.add(tweakName);
+				it.remove();
+				placed = true;
+				break;
+			}
+			if (!placed) {
+				LogWrapper.warning("Tweak classes {} have cyclic ordering constraints -- using the given order", remaining);
+				sorted.addAll(remaining);
+				break;
+			}
+		}
+		return sorted;
+	}
+
+	/**
+	 * Splits sorted tweak classes into groups. Groups of more than one contain only independent concurrent tweakers.
+	 */
+	private static List<List<String>> groupTweakers(List<String> sorted, Map<String, TweakOrder> orders) {
+		final List<List<String>> groups = new ArrayList<List<String>>();
+		List<String> current = null;
+		boolean currentConcurrent = false;
+		for (final String tweakName : sorted) {
+			final TweakOrder order = orders.get(tweakName);
+			final boolean concurrent = PARALLEL_TWEAKERS && order != null && order.concurrent();
+			if (concurrent && currentConcurrent && !dependsOnAny(order, current)) {
+				current.add(tweakName);
+			} else {
+				current = new ArrayList<String>(2);
+				current.add(tweakName);
+				currentConcurrent = concurrent;
+				groups.add(current);
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Takes the next tweakers off the head of the blackboard's "Tweaks" list. Concurrent tweakers at the head are
+	 * taken together as long as they don't depend on each other, anything else is taken on its own.
+	 */
+	private static List<ITweaker> takeTweakGroup(List<ITweaker> tweakers) {
+		final List<ITweaker> group = new ArrayList<ITweaker>(2);
+		final List<String> groupNames = new ArrayList<String>(2);
+		synchronized (tweakers) {
+			do {
+				final ITweaker tweaker = tweakers.remove(0);
+				group.add(tweaker);
+				groupNames.add(tweaker.getClass().getName());
+			} while (isConcurrent(group.get(0)) && !tweakers.isEmpty() && isConcurrent(tweakers.get(0))
+					&& !dependsOnAny(tweakers.get(0).getClass().getAnnotation(TweakOrder.class), groupNames));
+		}
+		return group;
+	}
+
+	private static boolean isConcurrent(ITweaker tweaker) {
+		final TweakOrder order = tweaker.getClass().getAnnotation(TweakOrder.class);
+		return PARALLEL_TWEAKERS && order != null && order.concurrent();
+	}
+
+	private static boolean dependsOnAny(TweakOrder order, Collection<String> tweakNames) {
+		if (order != null) {
+			for (final String dependency : order.after()) {
+				if (tweakNames.contains(dependency)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Runs the tasks of a group, concurrently if there's more than one, and returns their results in order.
+	 */
+	private <T> List<T> runGroup(List<Callable<T>> tasks) throws Exception {
+		final List<T> results = new ArrayList<T>(tasks.size());
+		if (tasks.size() == 1) {
+			results.add(tasks.get(0).call());
+			return results;
+		}
+
+		if (tweakExecutor == null) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			tweakExecutor = Executors.newCachedThreadPool(runnable -> {
+				final Thread thread = new Thread(runnable, "LaunchWrapper-Tweak-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				thread.setContextClassLoader(classLoader);
+				return thread;
+			});
+		}
+		for (final Future<T> future : tweakExecutor.invokeAll(tasks)) {
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			}
+		}
+		return results;
+	}
 }
@@ -1,6 +1,5 @@
 package net.minecraft.launchwrapper;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -9,7 +8,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.net.JarURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -20,20 +18,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
-import java.security.CodeSigner;
 import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.jar.JarFile;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.zip.Adler32;
 
 import javax.annotation.Nullable;
@@ -44,7 +44,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import net.minecraft.launchwrapper.utils.classes.CachedClassInfo;
+import net.minecraft.launchwrapper.utils.classes.CodeSourceCache;
+import net.minecraft.launchwrapper.utils.classes.PlatformPackages;
+import net.minecraft.launchwrapper.utils.classpath.ClasspathHits;
+import net.minecraft.launchwrapper.utils.classpath.JarIndex;
 import net.minecraft.launchwrapper.utils.mixin.MixinSupport;
+import net.minecraft.launchwrapper.utils.resources.ResourceDiskCache;
+import net.minecraft.launchwrapper.utils.resources.ResourcePipeline;
+import net.minecraft.launchwrapper.utils.timeline.StartupTimeline;
 
 public class LaunchClassLoader extends URLClassLoader {
 
@@ -59,23 +66,28 @@ public class LaunchClassLoader extends URLClassLoader {
 	public static final int BUFFER_SIZE = 1 << 12;
 	private List<URL> sources;
 	private ClassLoader parent = getClass().getClassLoader();
+	// Ext class loader on Java 8, platform class loader on Java 9+, both delegate to the bootstrap loader
+	private final ClassLoader platformLoader = ClassLoader.getSystemClassLoader().getParent();
 	private static final Gson GSON = new GsonBuilder().create();
 
-	private List<IClassTransformer> transformers = new ArrayList<IClassTransformer>(2);
+	private List<IClassTransformer> transformers = new CopyOnWriteArrayList<IClassTransformer>();
 	private Map<String, Class<?>> cachedClasses = new ConcurrentHashMap<String, Class<?>>();
-	private List<IResourceTransformer> resourceTransformers = new ArrayList<>();
-	private Map<String, byte[]> cachedResources = new ConcurrentHashMap<>();
-	private Set<String> invalidClasses = new HashSet<String>(1000);
+	private ResourcePipeline resourcePipeline = new ResourcePipeline(RESOURCE_CACHE_SIZE);
+	private Set<String> invalidClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(1000));
 
 	private FileSystem cacheFileSystem;
 	private CachedClassInfo cachedClassInfo;
 
-	private Set<String> classLoaderExceptions = new HashSet<String>();
-	private Set<String> transformerExceptions = new HashSet<String>();
-	private Map<String,byte[]> resourceCache = new ConcurrentHashMap<String,byte[]>(1000);
+	private Set<String> classLoaderExceptions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private Set<String> transformerExceptions = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private Map<String,byte[]> classBytesCache = new ConcurrentHashMap<String,byte[]>(1000);
 	private Set<String> negativeResourceCache = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
 	private IClassNameTransformer renameTransformer;
+	private final CodeSourceCache codeSourceCache = new CodeSourceCache();
+	private final StartupTimeline timeline = StartupTimeline.get();
+	private final ClasspathHits classpathHits;
+	private final JarIndex jarIndex;
 
 	private final ThreadLocal<byte[]> loadBuffer = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
 
@@ -84,13 +96,40 @@ public class LaunchClassLoader extends URLClassLoader {
 	private static final boolean DEBUG = Boolean.parseBoolean(System.getProperty("legacy.debugClassLoading", "false"));
 	private static final boolean DEBUG_FINER = DEBUG && Boolean.parseBoolean(System.getProperty("legacy.debugClassLoadingFiner", "false"));
 	private static final boolean DEBUG_SAVE = DEBUG && Boolean.parseBoolean(System.getProperty("legacy.debugClassLoadingSave", "false"));
+	private static final long RESOURCE_CACHE_SIZE = Long.getLong("legacy.resourceCacheSize", 16L << 20);
 	private static final Path DUMP_PATH = Paths.get(System.getProperty("legacy.classDumpPath", "./.classloader.out"));
 	private static File tempFolder = null;
-	private boolean isMixinLoaded = false;
+	private volatile boolean isMixinLoaded = false;
+
+	private static final boolean PLATFORM_FAST_LANE = Boolean.parseBoolean(System.getProperty("legacy.platformFastLane", "true"));
+	private static final boolean EAGER_JAR_INDEX = Boolean.parseBoolean(System.getProperty("legacy.eagerJarIndex", "false"));
+	private static final int JAR_INDEX_THREADS = Integer.getInteger("legacy.jarIndexThreads", Math.max(2, Runtime.getRuntime().availableProcessors()));
+	private static final boolean PARALLEL_TRANSFORM = Boolean.parseBoolean(System.getProperty("legacy.parallelTransform", "false"));
+	private static final int TRANSFORM_THREADS = Integer.getInteger("legacy.transformThreads", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	private ForkJoinPool transformPool;
+	private final Map<String, ForkJoinTask<PrefetchedClass>> prefetchedClasses = new ConcurrentHashMap<String, ForkJoinTask<PrefetchedClass>>();
 
 	public LaunchClassLoader(URL[] sources) {
+		this(sources, null);
+	}
+
+	/**
+	 * @param classpathHits Records which source each class is loaded from, may be {@code null}
+	 */
+	public LaunchClassLoader(URL[] sources, @Nullable ClasspathHits classpathHits) {
 		super(sources, null);
 		this.sources = new ArrayList<URL>(Arrays.asList(sources));
+		this.classpathHits = classpathHits;
+
+		// Open all jars in the background while the tweakers are set up
+		if (EAGER_JAR_INDEX) {
+			jarIndex = new JarIndex(JAR_INDEX_THREADS);
+			for (URL url : sources) {
+				jarIndex.add(url);
+			}
+		} else {
+			jarIndex = null;
+		}
 
 		// classloader exclusions
 		getClassLoaderExclusions().addAll(Arrays.asList(
@@ -118,6 +157,7 @@ public class LaunchClassLoader extends URLClassLoader {
 
 		// Init class cache
 		initializeClassCacheSystem();		
+		resourcePipeline.setDiskCache(new ClassCacheResourceStore());
 
 		// See: https://github.com/SpongePowered/SpongeCommon/commit/8f284427ca50d445d0fffab4afc8251388ada8e9
 		/*
@@ -149,7 +189,7 @@ public class LaunchClassLoader extends URLClassLoader {
 				LogWrapper.info("DEBUG_SAVE enabled, but 10 temp directories already exist, clean them and try again.");
 				tempFolder = null;
 			} else {
-				LogWrapper.info("DEBUG_SAVE Enabled, saving all classes to \"%s\"", tempFolder.getAbsolutePath().replace('\\', '/'));
+				LogWrapper.info("DEBUG_SAVE Enabled, saving all classes to \"{}\"", tempFolder.getAbsolutePath().replace('\\', '/'));
 				if(!tempFolder.mkdirs()) {
 					LogWrapper.severe("Can't create temp directories!");
 				}
@@ -161,6 +201,7 @@ public class LaunchClassLoader extends URLClassLoader {
 		long startTime = System.nanoTime();
 
 		File classCachesZip = new File(Launch.minecraftHome, "class_cache.zip");
+		migrateClassCache(classCachesZip);
 		Map<String, String> env = new HashMap<String, String>();
 		env.put("create", "true");
 		try {
@@ -184,6 +225,8 @@ public class LaunchClassLoader extends URLClassLoader {
 		}
 
 		Path classInfoCacheFile = cacheFileSystem.getPath("cached_class_info.json");
+		long modsHashStartTime = System.nanoTime();
+		timeline.record("cache.open", startTime, modsHashStartTime);
 
 		long result;
 		try {
@@ -205,6 +248,8 @@ public class LaunchClassLoader extends URLClassLoader {
 			throw new RuntimeException(e1);
 		}
 		long modsHash = result;
+		long loadInfoStartTime = System.nanoTime();
+		timeline.record("cache.modsHash", modsHashStartTime, loadInfoStartTime);
 
 		try {
 			if (Files.exists(classInfoCacheFile)) {
@@ -225,9 +270,10 @@ public class LaunchClassLoader extends URLClassLoader {
 			cachedClassInfo = new CachedClassInfo();
 			cachedClassInfo.modsHash = modsHash;
 		}
+		timeline.record("cache.loadInfo", loadInfoStartTime, System.nanoTime());
 
-		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-			// TODO: Doesn't always log message, log4j shutdown hook needs to run after this one
+		// Runs from LogWrapper's shutdown hook, so log4j is still up to log the result
+		LogWrapper.addShutdownTask(() -> {
 			try {
 				Files.write(classInfoCacheFile, GSON.toJson(cachedClassInfo).getBytes(), StandardOpenOption.CREATE);
 				cacheFileSystem.close();
@@ -235,9 +281,34 @@ public class LaunchClassLoader extends URLClassLoader {
 			} catch (Throwable t) {
 				LogWrapper.severe("Failed to save caches", t);
 			}
-		}));
+		});
+
+		long endTime = System.nanoTime();
+		timeline.record("cache.init", startTime, endTime);
+		LogWrapper.info("Initialized cache system in {} ns", endTime - startTime);
+	}
 
-		LogWrapper.info("Initialized cache system in {} ns", System.nanoTime() - startTime);
+	/**
+	 * The class cache used to be created in the working directory, before the loader was built after
+	 * --gameDir was parsed. Moves an old cache to the game directory, or deletes it if the game directory
+	 * already has one, so it isn't left behind.
+	 */
+	private static void migrateClassCache(File classCachesZip) {
+		File oldClassCachesZip = new File("class_cache.zip");
+		try {
+			if (!oldClassCachesZip.isFile() || oldClassCachesZip.getCanonicalFile().equals(classCachesZip.getCanonicalFile())) {
+				return;
+			}
+			if (classCachesZip.exists()) {
+				Files.delete(oldClassCachesZip.toPath());
+				LogWrapper.info("Deleted old class cache {}", oldClassCachesZip.getAbsolutePath());
+			} else {
+				Files.move(oldClassCachesZip.toPath(), classCachesZip.toPath());
+				LogWrapper.info("Moved class cache from {} to {}", oldClassCachesZip.getAbsolutePath(), classCachesZip.getAbsolutePath());
+			}
+		} catch (IOException e) {
+			LogWrapper.warning("Failed to migrate old class cache {}", oldClassCachesZip.getAbsolutePath(), e);
+		}
 	}
 
 	/**
@@ -249,6 +320,9 @@ public class LaunchClassLoader extends URLClassLoader {
 		try {
 			IClassTransformer transformer = (IClassTransformer) loadClass(transformerClassName).newInstance();
 			transformers.add(transformer);
+			if (isMixinLoaded) {
+				MixinSupport.invalidate();
+			}
 			if (transformer instanceof IClassNameTransformer/* && renameTransformer == null*/) {
 				renameTransformer = (IClassNameTransformer) transformer;
 			}
@@ -265,6 +339,9 @@ public class LaunchClassLoader extends URLClassLoader {
 	public void registerTransformer(IClassTransformer transformerInstance) {
 		try {
 			transformers.add(transformerInstance);
+			if (isMixinLoaded) {
+				MixinSupport.invalidate();
+			}
 
 			if (transformerInstance instanceof IClassNameTransformer)
 				renameTransformer = (IClassNameTransformer) transformerInstance;
@@ -281,14 +358,51 @@ public class LaunchClassLoader extends URLClassLoader {
 	public void registerResourceTransformer(String className) {
 		try {
 			IResourceTransformer transformer = (IResourceTransformer) loadClass(className).newInstance();
-			resourceTransformers.add(transformer);
+			resourcePipeline.addTransformer(transformer);
 		} catch (Exception e) {
 			LogWrapper.severe("A critical problem occurred registering the resource transformer class {}", className, e);
 		}
 	}
 
+	/**
+	 * Registers resource transformer class
+	 *
+	 * @param transformerInstance Instance of pre-existing {@link IResourceTransformer}.
+	 */
+	public void registerResourceTransformer(IResourceTransformer transformerInstance) {
+		resourcePipeline.addTransformer(transformerInstance);
+	}
+
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		// JDK classes are never defined by this loader, hand them to the platform loader without
+		// taking the class loading lock or scanning exclusions
+		if (PLATFORM_FAST_LANE && platformLoader != null && PlatformPackages.isPlatformClass(name)) {
+			final Class<?> clazz = platformLoader.loadClass(name);
+			if (resolve) {
+				resolveClass(clazz);
+			}
+			return clazz;
+		}
+		return super.loadClass(name, resolve);
+	}
+
 	@Override
 	public Class<?> findClass(final String name) throws ClassNotFoundException {
+		try {
+			return findTransformedClass(name);
+		} finally {
+			// Drop a prefetched result the load did not use, e.g. because the class came from the class cache
+			if (!prefetchedClasses.isEmpty()) {
+				final ForkJoinTask<PrefetchedClass> task = prefetchedClasses.remove(name);
+				if (task != null) {
+					task.cancel(false);
+				}
+			}
+		}
+	}
+
+	private Class<?> findTransformedClass(final String name) throws ClassNotFoundException {
 		if(invalidClasses.contains(name)) {
 			throw new ClassNotFoundException(name);
 		}
@@ -338,21 +452,12 @@ public class LaunchClassLoader extends URLClassLoader {
 			// Get class bytes
 			byte[] untransformedClass = getClassBytes(untransformedName);
 
-			// Get signers
-			CodeSigner[] signers = null;
-			if (untransformedName.indexOf('.') > -1 && !untransformedName.startsWith("net.minecraft.")) {
-				if (urlConnection instanceof JarURLConnection) {
-					final JarFile jarFile = ((JarURLConnection) urlConnection).getJarFile();
-					if (jarFile != null && jarFile.getManifest() != null) {
-						signers = jarFile.getJarEntry(fileName).getCodeSigners();
-					}
-				}
-			}
-
+			// Get code source, signers are only looked up for signed jars
+			final boolean checkSigners = untransformedName.indexOf('.') > -1 && !untransformedName.startsWith("net.minecraft.");
+			final CodeSource codeSource = codeSourceCache.getCodeSource(urlConnection, fileName, checkSigners);
 
 			if (untransformedClass == null) {
 				byte[] transformedClass = runTransformers(untransformedName, transformedName, untransformedClass);
-				CodeSource codeSource = urlConnection == null ? null : new CodeSource(urlConnection.getURL(), signers);
 				Class<?> clazz = defineClass(transformedName, transformedClass, 0, transformedClass.length, codeSource);
 				cachedClasses.put(transformedName, clazz);
 				return clazz;
@@ -363,9 +468,11 @@ public class LaunchClassLoader extends URLClassLoader {
 			adler32.update(untransformedClass);
 			long untransformedClassHash = adler32.getValue();
 
+			final Long cacheKey = getCacheKey(name, transformedName, untransformedClassHash);
+
 			// Try getting the class from cache
 			byte[] transformedClass = null;
-			long transformedClassHash = cachedClassInfo.transformedClassHashes.getOrDefault(untransformedClassHash, 0L);
+			long transformedClassHash = cacheKey != null ? cachedClassInfo.transformedClassHashes.getOrDefault(cacheKey, 0L) : 0L;
 
 			if (transformedClassHash != 0) {
 				try {
@@ -374,9 +481,6 @@ public class LaunchClassLoader extends URLClassLoader {
 					} else {
 						transformedClass = getFromCache(transformedClassHash);
 					}
-					if (isMixinLoaded) {
-						MixinSupport.onCachedClassLoad();
-					}
 				} catch (Throwable t) {
 					LogWrapper.severe("Failed to read cached class {}", name, t);
 				}
@@ -386,12 +490,17 @@ public class LaunchClassLoader extends URLClassLoader {
 			if (transformedClass == null) {			
 				try {
 					// Run transformers (running with null class bytes is valid, because transformers may generate classes dynamically)
-					transformedClass = runTransformers(untransformedName, transformedName, untransformedClass);
+					transformedClass = transformClass(name, untransformedName, transformedName, untransformedClass);
 				} catch (Exception e) {
 					if(DEBUG)
 						LogWrapper.trace("Exception encountered while transformimg class {}", name, e);
 				}
 
+				// Mixin may have changed phase or picked up configs while transforming
+				if (isMixinLoaded) {
+					MixinSupport.detectChanges();
+				}
+
 				// Calculate transformed class hash
 				adler32.reset();
 				adler32.update(transformedClass);
@@ -402,7 +511,9 @@ public class LaunchClassLoader extends URLClassLoader {
 					if (transformedClassHash != untransformedClassHash) {
 						saveToCache(transformedClassHash, transformedClass);
 					}
-					cachedClassInfo.transformedClassHashes.put(untransformedClassHash, transformedClassHash);
+					if (cacheKey != null) {
+						cachedClassInfo.transformedClassHashes.put(cacheKey, transformedClassHash);
+					}
 				} catch (Throwable t) {
 					LogWrapper.severe("Failed to saving class to cache {}", name, t);
 				}
@@ -425,7 +536,6 @@ public class LaunchClassLoader extends URLClassLoader {
 			}
 
 			// Define class
-			final CodeSource codeSource = urlConnection == null ? null : new CodeSource(urlConnection.getURL(), signers);
 			final Class<?> clazz = defineClass(transformedName, transformedClass, 0, transformedClass.length, codeSource);
 			cachedClasses.put(transformedName, clazz);
 			return clazz;
@@ -461,12 +571,12 @@ public class LaunchClassLoader extends URLClassLoader {
 		}
 
 		try {
-			LogWrapper.fine("Saving transformed class \"%s\" to \"%s\"", transformedName, outFile.getAbsolutePath().replace('\\', '/'));
+			LogWrapper.fine("Saving transformed class \"{}\" to \"{}\"", transformedName, outFile.getAbsolutePath().replace('\\', '/'));
 			final OutputStream output = new FileOutputStream(outFile);
 			output.write(data);
 			output.close();
 		} catch (IOException ex) {
-			LogWrapper.log(Level.WARN, ex, "Could not save transformed class \"%s\"", transformedName);
+			LogWrapper.log(Level.WARN, ex, "Could not save transformed class \"{}\"", transformedName);
 		}
 	}
 
@@ -500,11 +610,16 @@ public class LaunchClassLoader extends URLClassLoader {
 	}
 
 	private byte[] runTransformers(String name, String transformedName, @Nullable byte[] basicClass) {
+		return runTransformers(name, transformedName, basicClass, 0);
+	}
+
+	private byte[] runTransformers(String name, String transformedName, @Nullable byte[] basicClass, int fromIndex) {
 		if(DEBUG_FINER) {
 			LogWrapper.finest("Beginning transform of {{} ({})} Start Length: {}", name, transformedName, basicClass != null ? basicClass.length : 0);
 		}
 
-		for (final IClassTransformer transformer : transformers) {
+		for (int i = fromIndex; i < transformers.size(); i++) {
+			final IClassTransformer transformer = transformers.get(i);
 			final String transName = transformer.getClass().getName();
 			if(DEBUG_FINER) {
 				LogWrapper.finest("Before Transformer {{} ({})} {}: {}", name, transformedName, transName, basicClass != null ? basicClass.length : 0);
@@ -517,10 +632,194 @@ public class LaunchClassLoader extends URLClassLoader {
 		return basicClass;
 	}
 
+	/**
+	 * Picks up the result of {@link #prefetchClasses(Collection)} for the given class if there is a usable one,
+	 * and runs the remaining (non thread-safe) part of the transformer chain on the current thread.
+	 */
+	private byte[] transformClass(String name, String untransformedName, String transformedName, @Nullable byte[] basicClass) {
+		final ForkJoinTask<PrefetchedClass> task = prefetchedClasses.remove(name);
+		if (task != null) {
+			final PrefetchedClass prefetched = task.join();
+			if (prefetched != null && prefetched.matches(untransformedName, transformedName, basicClass)) {
+				if (DEBUG_FINER) {
+					LogWrapper.finest("Using prefetched transform of {} ({} of {} transformers)", name, prefetched.chain.length, transformers.size());
+				}
+				return runTransformers(untransformedName, transformedName, prefetched.transformed, prefetched.chain.length);
+			}
+		}
+		return runTransformers(untransformedName, transformedName, basicClass);
+	}
+
+	/**
+	 * Transforms the given classes ahead of time on a shared {@link ForkJoinPool}. Only the leading
+	 * {@link IThreadSafeTransformer}s of the chain are run off-thread, the rest still runs in {@link #findClass(String)}.
+	 * Does nothing unless {@code legacy.parallelTransform} is enabled.
+	 *
+	 * @param classNames Fully qualified class names which are likely to be loaded soon
+	 */
+	public void prefetchClasses(Collection<String> classNames) {
+		if (!PARALLEL_TRANSFORM) {
+			return;
+		}
+
+		final IClassTransformer[] chain = getThreadSafeTransformers();
+		if (chain.length == 0 || (renameTransformer != null && !(renameTransformer instanceof IThreadSafeTransformer))) {
+			return;
+		}
+
+		final ForkJoinPool pool = getTransformPool();
+		for (final String name : classNames) {
+			if (cachedClasses.containsKey(name) || invalidClasses.contains(name) || prefetchedClasses.containsKey(name) || isTransformerExcluded(name)) {
+				continue;
+			}
+			prefetchedClasses.put(name, pool.submit(() -> prefetchClass(name, chain)));
+		}
+	}
+
+	/**
+	 * Prefetches the classes recorded in the class cache by previous launches, see {@link #prefetchClasses(Collection)}.
+	 * Called by {@link Launch} once all tweakers have registered their transformers.
+	 */
+	public void prefetchKnownClasses() {
+		if (PARALLEL_TRANSFORM) {
+			prefetchClasses(new ArrayList<String>(cachedClassInfo.transformedClassNames.keySet()));
+		}
+	}
+
+	/**
+	 * Classes targeted by mixins are keyed by their configs as well, so config changes only miss for them.
+	 *
+	 * @return Class cache key, or {@code null} if the class can't be served from the cache right now
+	 */
+	@Nullable
+	private Long getCacheKey(String name, String transformedName, long untransformedClassHash) {
+		if (!isMixinLoaded) {
+			return untransformedClassHash;
+		}
+		try {
+			if (MixinSupport.onCachedClassLoad()) {
+				return untransformedClassHash | MixinSupport.getFingerprint(transformedName) << 32;
+			}
+		} catch (Throwable t) {
+			LogWrapper.severe("Failed to fingerprint mixins for class {}", name, t);
+		}
+		return null;
+	}
+
+	private PrefetchedClass prefetchClass(String name, IClassTransformer[] chain) {
+		try {
+			final String untransformedName = untransformName(name);
+			final String transformedName = transformName(name);
+			final byte[] basicClass = getClassBytes(untransformedName);
+			if (basicClass == null) {
+				return null;
+			}
+
+			// Classes with a cached transform won't be transformed at all
+			final Adler32 adler32 = new Adler32();
+			adler32.update(basicClass);
+			final Long cacheKey = getCacheKey(name, transformedName, adler32.getValue());
+			if (cacheKey != null && cachedClassInfo.transformedClassHashes.containsKey(cacheKey)) {
+				return null;
+			}
+
+			byte[] transformed = basicClass;
+			for (final IClassTransformer transformer : chain) {
+				transformed = transformer.transform(untransformedName, transformedName, transformed);
+			}
+			return new PrefetchedClass(untransformedName, transformedName, basicClass, transformed, chain);
+		} catch (Throwable t) {
+			if (DEBUG) {
+				LogWrapper.trace("Exception encountered while prefetching class {}", name, t);
+			}
+			return null;
+		}
+	}
+
+	private IClassTransformer[] getThreadSafeTransformers() {
+		int count = 0;
+		while (count < transformers.size() && transformers.get(count) instanceof IThreadSafeTransformer) {
+			count++;
+		}
+		return transformers.subList(0, count).toArray(new IClassTransformer[count]);
+	}
+
+	private boolean isTransformerExcluded(String name) {
+		for (final String exception : classLoaderExceptions) {
+			if (name.startsWith(exception)) {
+				return true;
+			}
+		}
+		for (final String exception : transformerExceptions) {
+			if (name.startsWith(exception)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private synchronized ForkJoinPool getTransformPool() {
+		if (transformPool == null) {
+			transformPool = new ForkJoinPool(TRANSFORM_THREADS, pool -> {
+				final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("LaunchWrapper-Transform-" + thread.getPoolIndex());
+				thread.setContextClassLoader(this);
+				return thread;
+			}, null, false);
+		}
+		return transformPool;
+	}
+
+	private class PrefetchedClass {
+		private final String untransformedName;
+		private final String transformedName;
+		private final byte[] basicClass;
+		private final byte[] transformed;
+		private final IClassTransformer[] chain;
+
+		private PrefetchedClass(String untransformedName, String transformedName, byte[] basicClass, byte[] transformed, IClassTransformer[] chain) {
+			this.untransformedName = untransformedName;
+			this.transformedName = transformedName;
+			this.basicClass = basicClass;
+			this.transformed = transformed;
+			this.chain = chain;
+		}
+
+		/**
+		 * The prefetched result is only valid if it was built from the same input, and no transformer was
+		 * inserted into the thread-safe part of the chain in the meantime.
+		 */
+		private boolean matches(String untransformedName, String transformedName, byte[] basicClass) {
+			if (!Arrays.equals(this.basicClass, basicClass) || !this.untransformedName.equals(untransformedName) || !this.transformedName.equals(transformedName)) {
+				return false;
+			}
+			if (transformers.size() < chain.length) {
+				return false;
+			}
+			for (int i = 0; i < chain.length; i++) {
+				if (transformers.get(i) != chain[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	@Override
 	public void addURL(final URL url) {
 		super.addURL(url);
 		sources.add(url);
+		if (jarIndex != null) {
+			jarIndex.add(url);
+		}
+	}
+
+	@Override
+	public URL findResource(final String name) {
+		if (jarIndex != null) {
+			return jarIndex.findResource(name, super::findResource);
+		}
+		return super.findResource(name);
 	}
 
 	public List<URL> getSources() {
@@ -541,6 +840,15 @@ public class LaunchClassLoader extends URLClassLoader {
 		}
 	}
 
+	/**
+	 * Called once the tweakers provided their launch arguments, Mixin changes to its default phase there.
+	 */
+	void onTweakersDone() {
+		if (isMixinLoaded) {
+			MixinSupport.detectChanges();
+		}
+	}
+
 	/**
 	 * Gets list of registered {@link IClassTransformer} instances
 	 *
@@ -622,6 +930,43 @@ public class LaunchClassLoader extends URLClassLoader {
 		}
 	}
 
+	/**
+	 * Stores transformed resources next to the transformed classes. The resource key maps to the hash
+	 * of the transformed bytes, which are saved under {@code resources/} in the class cache.
+	 */
+	private class ClassCacheResourceStore implements ResourceDiskCache {
+		@Override
+		public byte[] get(String key, byte[] original) throws IOException {
+			Long transformedHash = cachedClassInfo.transformedResourceHashes.get(key);
+			if (transformedHash == null) {
+				return null;
+			}
+			if (transformedHash == 0) {
+				return original;
+			}
+			Path path = cacheFileSystem.getPath("resources", Long.toHexString(transformedHash));
+			return Files.exists(path) ? Files.readAllBytes(path) : null;
+		}
+
+		@Override
+		public void put(String key, byte[] original, byte[] transformed) throws IOException {
+			if (transformed == original) {
+				cachedClassInfo.transformedResourceHashes.put(key, 0L);
+				return;
+			}
+			Adler32 adler32 = new Adler32();
+			adler32.update(transformed);
+			long transformedHash = adler32.getValue();
+
+			Path path = cacheFileSystem.getPath("resources", Long.toHexString(transformedHash));
+			if (!Files.exists(path)) {
+				Files.createDirectories(path.getParent());
+				Files.write(path, transformed);
+			}
+			cachedClassInfo.transformedResourceHashes.put(key, transformedHash);
+		}
+	}
+
 	/**`
 	 * Gets class raw bytes
 	 *
@@ -632,15 +977,15 @@ public class LaunchClassLoader extends URLClassLoader {
 	public byte[] getClassBytes(String name) {
 		if (negativeResourceCache.contains(name)) {
 			return null;
-		} else if (resourceCache.containsKey(name)) {
-			return resourceCache.get(name);
+		} else if (classBytesCache.containsKey(name)) {
+			return classBytesCache.get(name);
 		}
 		if (name.indexOf('.') == -1) {
 			for (final String reservedName : RESERVED_NAMES) {
 				if (name.toUpperCase(Locale.ENGLISH).startsWith(reservedName)) {
 					final byte[] data = getClassBytes("_" + name);
 					if (data != null) {
-						resourceCache.put(name, data);
+						classBytesCache.put(name, data);
 						return data;
 					}
 				}
@@ -656,12 +1001,15 @@ public class LaunchClassLoader extends URLClassLoader {
 			negativeResourceCache.add(name);
 			return null;
 		}
+		if (classpathHits != null) {
+			classpathHits.recordHit(classResource, resourcePath);
+		}
 		try(InputStream classStream = classResource.openStream()) {
 			if (DEBUG) {
 				LogWrapper.trace("Loading class {} from resource {}", name, classResource.toString());
 			}
 			byte[] data = Objects.requireNonNull(readFully(classStream));
-			resourceCache.put(name, data);
+			classBytesCache.put(name, data);
 			return data;
 		} 
 		catch (Exception e) {
@@ -677,23 +1025,18 @@ public class LaunchClassLoader extends URLClassLoader {
 		negativeResourceCache.removeAll(entriesToClear);
 	}
 
+	/**
+	 * Gets list of registered {@link IResourceTransformer} instances
+	 *
+	 * @return List of registered {@link IResourceTransformer} instances
+	 */
+	public List<IResourceTransformer> getResourceTransformers() {
+		return resourcePipeline.getTransformers();
+	}
+
 	@Override
 	public InputStream getResourceAsStream(String name) {
-		if (resourceCache.containsKey(name)) {
-			return new ByteArrayInputStream(resourceCache.get(name));
-		}
-		InputStream stream = super.getResourceAsStream(name);
-		byte[] original = stream == null ? null : this.readFully(stream);
-		byte[] transformed = null;
-		for (IResourceTransformer transformer : resourceTransformers) {
-			if ((transformed = transformer.transform(name, original)) != null) {
-				resourceCache.put(name, transformed);
-			}
-		}
-		if (transformed != null) {
-			return new ByteArrayInputStream(transformed);
-		}
-		return super.getResourceAsStream(name);
+		return resourcePipeline.getResourceAsStream(name, super::getResourceAsStream);
 	}
 
-}
+}
\ No newline at end of file
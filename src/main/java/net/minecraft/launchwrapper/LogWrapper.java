@@ -1,46 +1,105 @@
 package net.minecraft.launchwrapper;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+
+import net.minecraft.launchwrapper.utils.logging.Log4jEvents;
+import net.minecraft.launchwrapper.utils.logging.LogRingBuffer;
 
+/**
+ * Messages use log4j's {@code {}} placeholders and are only formatted if the level is enabled.
+ * A trailing {@link Throwable} argument is logged as the exception. The fixed arity overloads of the
+ * debug levels don't allocate a varargs array when the level is disabled.
+ * <p>
+ * With {@code legacy.asyncLogging} (on by default together with {@code legacy.debugClassLoading}) messages
+ * are queued in a ring buffer and handed to log4j by a background thread. Pending messages are flushed
+ * from LogWrapper's shutdown hook, after the tasks registered with {@link #addShutdownTask(Runnable)}.
+ */
 public class LogWrapper {
 
 	public static LogWrapper log = new LogWrapper();
-	private Logger myLog;
+	private volatile Logger myLog;
+
+	private static final Map<String, Logger> channels = new ConcurrentHashMap<String, Logger>();
+
+	private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("legacy.asyncLogging", System.getProperty("legacy.debugClassLoading", "false")));
+	private static final LogRingBuffer<LogEvent> buffer = ASYNC ? new LogRingBuffer<LogEvent>(Integer.getInteger("legacy.asyncLoggingBufferSize", 8192)) : null;
+	private static final Thread drainThread;
+	private static volatile boolean closed;
+	private static final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<Runnable>();
 
-	private static boolean configured;
+	static {
+		if (ASYNC) {
+			drainThread = new Thread(LogWrapper::drainLoop, "LaunchWrapper-Log");
+			drainThread.setDaemon(true);
+			drainThread.start();
+		} else {
+			drainThread = null;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(LogWrapper::shutdown, "LaunchWrapper-Shutdown"));
+	}
 
-	private static void configureLogging() {
-		log.myLog = LogManager.getLogger("LaunchWrapper");
-		configured = true;
+	private static Logger logger() {
+		Logger logger = log.myLog;
+		if (logger == null) {
+			logger = LogManager.getLogger("LaunchWrapper");
+			log.myLog = logger;
+		}
+		return logger;
+	}
+
+	private static Logger channel(String logChannel) {
+		Logger logger = channels.get(logChannel);
+		if (logger == null) {
+			logger = LogManager.getLogger(logChannel);
+			channels.put(logChannel, logger);
+		}
+		return logger;
 	}
 
 	public static void retarget(Logger to) {
 		log.myLog = to;
 	}
+
+	public static boolean isEnabled(Level level) {
+		return logger().isEnabled(level);
+	}
+
 	public static void log(String logChannel, Level level, String format, Object... data) {
-		makeLog(logChannel);
-		LogManager.getLogger(logChannel).log(level, String.format(format, data));
+		final Logger logger = channel(logChannel);
+		if (logger.isEnabled(level)) {
+			write(logger, level, format, data, null);
+		}
 	}
 
 	public static void log(Level level, String format, Object... data) {
-		if (!configured) {
-			configureLogging();
+		final Logger logger = logger();
+		if (logger.isEnabled(level)) {
+			write(logger, level, format, data, null);
 		}
-		log.myLog.log(level, String.format(format, data));
 	}
 
 	public static void log(String logChannel, Level level, Throwable ex, String format, Object... data) {
-		makeLog(logChannel);
-		LogManager.getLogger(logChannel).log(level, String.format(format, data), ex);
+		final Logger logger = channel(logChannel);
+		if (logger.isEnabled(level)) {
+			write(logger, level, format, data, ex);
+		}
 	}
 
 	public static void log(Level level, Throwable ex, String format, Object... data) {
-		if (!configured) {
-			configureLogging();
+		final Logger logger = logger();
+		if (logger.isEnabled(level)) {
+			write(logger, level, format, data, ex);
 		}
-		log.myLog.log(level, String.format(format, data), ex);
 	}
 
 	public static void severe(String format, Object... data) {
@@ -59,6 +118,20 @@ public class LogWrapper {
 		log(Level.DEBUG, format, data);
 	}
 
+	public static void fine(String format, Object p0) {
+		final Logger logger = logger();
+		if (logger.isEnabled(Level.DEBUG)) {
+			write(logger, Level.DEBUG, format, new Object[]{p0}, null);
+		}
+	}
+
+	public static void fine(String format, Object p0, Object p1) {
+		final Logger logger = logger();
+		if (logger.isEnabled(Level.DEBUG)) {
+			write(logger, Level.DEBUG, format, new Object[]{p0, p1}, null);
+		}
+	}
+
 	public static void finer(String format, Object... data) {
 		log(Level.TRACE, format, data);
 	}
@@ -67,11 +140,137 @@ public class LogWrapper {
 		log(Level.TRACE, format, data);
 	}
 
+	public static void finest(String format, Object p0, Object p1, Object p2) {
+		trace(format, p0, p1, p2);
+	}
+
 	public static void trace(String format, Object... data) {
 		log(Level.TRACE, format, data);
 	}
 
+	public static void trace(String format, Object p0) {
+		final Logger logger = logger();
+		if (logger.isEnabled(Level.TRACE)) {
+			write(logger, Level.TRACE, format, new Object[]{p0}, null);
+		}
+	}
+
+	public static void trace(String format, Object p0, Object p1) {
+		final Logger logger = logger();
+		if (logger.isEnabled(Level.TRACE)) {
+			write(logger, Level.TRACE, format, new Object[]{p0, p1}, null);
+		}
+	}
+
+	public static void trace(String format, Object p0, Object p1, Object p2) {
+		final Logger logger = logger();
+		if (logger.isEnabled(Level.TRACE)) {
+			write(logger, Level.TRACE, format, new Object[]{p0, p1, p2}, null);
+		}
+	}
+
 	public static void makeLog(String logChannel) {
-		LogManager.getLogger(logChannel);
+		channel(logChannel);
+	}
+
+	/**
+	 * Registers a task for LogWrapper's shutdown hook. Tasks run in registration order while logging
+	 * is still available, so their messages aren't lost to log4j's own shutdown.
+	 */
+	public static void addShutdownTask(Runnable task) {
+		shutdownTasks.add(task);
+	}
+
+	/**
+	 * Blocks until all queued messages have been handed to log4j.
+	 */
+	public static void flush() {
+		if (ASYNC) {
+			drain();
+		}
+	}
+
+	private static void write(Logger logger, Level level, String format, Object[] data, Throwable ex) {
+		if (ASYNC && !closed) {
+			final LogEvent event = new LogEvent(logger, level, format, data, ex);
+			if (buffer.offer(event)) {
+				return;
+			}
+			// The buffer is full, hand over the queued messages first so this one doesn't overtake them
+			synchronized (LogWrapper.class) {
+				drain();
+				dispatch(event);
+			}
+			return;
+		}
+		if (ex == null) {
+			logger.log(level, format, data);
+		} else {
+			logger.log(level, new ParameterizedMessage(format, data, ex), ex);
+		}
+	}
+
+	private static void drainLoop() {
+		// Back off while idle, the launcher logs little once the game is running
+		long idleMillis = 1;
+		while (!closed) {
+			if (drain()) {
+				idleMillis = 1;
+			} else {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleMillis));
+				idleMillis = Math.min(idleMillis << 1, 50);
+			}
+		}
+	}
+
+	private static synchronized boolean drain() {
+		boolean drained = false;
+		LogEvent event;
+		while ((event = buffer.poll()) != null) {
+			drained = true;
+			dispatch(event);
+		}
+		return drained;
+	}
+
+	private static void dispatch(LogEvent event) {
+		final ParameterizedMessage message = new ParameterizedMessage(event.format, event.data, event.ex);
+		// Keeps the [thread/level] prefix pointing to the thread which logged the message
+		if (!Log4jEvents.log(event.logger, LogWrapper.class.getName(), event.level, message, event.threadName, event.timeMillis)) {
+			event.logger.log(event.level, message, message.getThrowable());
+		}
+	}
+
+	private static void shutdown() {
+		for (final Runnable task : shutdownTasks) {
+			try {
+				task.run();
+			} catch (Throwable t) {
+				severe("Shutdown task {} failed", task, t);
+			}
+		}
+		if (ASYNC) {
+			closed = true;
+			drain();
+		}
+		LogManager.shutdown();
+	}
+
+	private static class LogEvent {
+		private final Logger logger;
+		private final Level level;
+		private final String format;
+		private final Object[] data;
+		private final Throwable ex;
+		private final String threadName = Thread.currentThread().getName();
+		private final long timeMillis = System.currentTimeMillis();
+
+		private LogEvent(Logger logger, Level level, String format, Object[] data, Throwable ex) {
+			this.logger = logger;
+			this.level = level;
+			this.format = format;
+			this.data = data;
+			this.ex = ex;
+		}
 	}
 }
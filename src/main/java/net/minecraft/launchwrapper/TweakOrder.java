@@ -0,0 +1,32 @@
+package net.minecraft.launchwrapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares ordering constraints for an {@link ITweaker}, read before the tweaker is constructed.
+ * <p>
+ * Within one pass of {@link Launch}, tweakers are handled in command line / discovery order, moved behind
+ * the tweakers named in {@link #after()}. Adjacent {@link #concurrent()} tweakers that don't depend on each
+ * other are constructed concurrently. Tweakers are then taken off the head of the blackboard's "Tweaks" list,
+ * and consecutive concurrent ones there get {@link ITweaker#acceptOptions} called concurrently.
+ * {@link ITweaker#injectIntoClassLoader} always runs on the launch thread in that order, so the transformer
+ * order stays the same. Tweak classes queued by a concurrent group are processed in name order.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TweakOrder {
+
+    /**
+     * @return Tweak class names which must be handled before this tweaker if they are part of the same pass
+     */
+    String[] after() default {};
+
+    /**
+     * @return Whether the constructor and {@link ITweaker#acceptOptions} are safe to run alongside other concurrent tweakers
+     */
+    boolean concurrent() default false;
+
+}
@@ -1,6 +1,5 @@
 package net.minecraft.launchwrapper.injector;
 
-import net.minecraft.launchwrapper.IClassTransformer;
 import net.minecraft.launchwrapper.Launch;
 
 import javax.swing.*;
@@ -18,13 +17,10 @@ import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 
-public class AlphaVanillaTweakInjector implements IClassTransformer {
+public class AlphaVanillaTweakInjector extends PatchingTransformer {
     public AlphaVanillaTweakInjector() {
-    }
-
-    @Override
-    public byte[] transform(final String name, final String transformedName, final byte[] bytes) {
-        return bytes;
+        // The applet is started and its work dir set from main, only the loaded icons are set by the game thread
+        register(WindowIcons.DISPLAY_USERS, WindowIcons.DISPLAY_PATCH);
     }
 
     public static void main(String[] args) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
@@ -0,0 +1,78 @@
+package net.minecraft.launchwrapper.injector;
+
+import java.nio.charset.StandardCharsets;
+
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Selects classes for patches that are not bound to a class name, see {@link PatchingTransformer#register(ClassMatcher, MethodPatch)}.
+ */
+public interface ClassMatcher {
+
+    /**
+     * @param name Class name
+     * @param reader Reader of the class, only the header should be needed to decide
+     * @return Whether the patch applies to the class
+     */
+    boolean matches(String name, ClassReader reader);
+
+    /**
+     * Cheap check on the raw class bytes, only classes passing it are parsed and handed to {@link #matches}.
+     *
+     * @param name Class name
+     * @param bytes Class bytes
+     * @return Whether the class may match
+     */
+    default boolean mayMatch(String name, byte[] bytes) {
+        return true;
+    }
+
+    /**
+     * Selects classes whose constant pool references a class, i.e. which use it in their code or signatures.
+     *
+     * @param internalName Internal name of the referenced class
+     */
+    static ClassMatcher referencing(String internalName) {
+        final byte[] utf8 = internalName.getBytes(StandardCharsets.UTF_8);
+        return new ClassMatcher() {
+            @Override
+            public boolean mayMatch(String name, byte[] bytes) {
+                return contains(bytes, utf8);
+            }
+
+            @Override
+            public boolean matches(String name, ClassReader reader) {
+                final char[] buffer = new char[reader.getMaxStringLength()];
+                for (int i = 1; i < reader.getItemCount(); i++) {
+                    final int offset = reader.getItem(i);
+                    // The second slot of long and double constants has no offset, class entries hold a name index
+                    if (offset > 0 && reader.readByte(offset - 1) == 7 && internalName.equals(reader.readUTF8(offset, buffer))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return Whether the bytes contain the pattern
+     */
+    static boolean contains(byte[] bytes, byte[] pattern) {
+        final byte first = pattern[0];
+        final int last = bytes.length - pattern.length;
+        search:
+        for (int i = 0; i <= last; i++) {
+            if (bytes[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue search;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
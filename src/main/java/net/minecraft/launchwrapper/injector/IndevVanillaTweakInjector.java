@@ -1,83 +1,70 @@
 package net.minecraft.launchwrapper.injector;
 
-import net.minecraft.launchwrapper.IClassTransformer;
 import net.minecraft.launchwrapper.Launch;
-import org.objectweb.asm.*;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.*;
 
 import javax.imageio.ImageIO;
 import java.io.File;
+import java.util.Arrays;
 import java.util.ListIterator;
 
 import static org.objectweb.asm.Opcodes.*;
 
-public class IndevVanillaTweakInjector implements IClassTransformer {
+public class IndevVanillaTweakInjector extends PatchingTransformer {
     public IndevVanillaTweakInjector() {
-    }
-
-    @Override
-    public byte[] transform(final String name, final String transformedName, final byte[] bytes) {
-        if (bytes == null) {
-            return null;
-        }
-
-        final ClassNode classNode = new ClassNode();
-        final ClassReader classReader = new ClassReader(bytes);
-        classReader.accept(classNode, ClassReader.EXPAND_FRAMES);
-
-        if (!classNode.interfaces.contains("java/lang/Runnable")) {
-            return bytes;
-        }
-
-        MethodNode runMethod = null;
-        for (final MethodNode methodNode : classNode.methods) {
-            if ("run".equals(methodNode.name)) {
-                runMethod = methodNode;
-                break;
+        // The Minecraft class is obfuscated, it is the applet's Runnable
+        final ClassMatcher runnable = ClassMatcher.referencing("java/lang/Runnable");
+        register(new ClassMatcher() {
+            @Override
+            public boolean mayMatch(String name, byte[] bytes) {
+                return runnable.mayMatch(name, bytes);
             }
-        }
-        if (runMethod == null) {
-            // WTF? We got no main method
-            return bytes;
-        }
-
-        System.out.println("Probably the Minecraft class (it has run && is applet!): " + name);
-
-        final ListIterator<AbstractInsnNode> iterator = runMethod.instructions.iterator();
-        int firstSwitchJump = -1;
 
-        while (iterator.hasNext()) {
-            AbstractInsnNode instruction = iterator.next();
+            @Override
+            public boolean matches(String name, ClassReader reader) {
+                return Arrays.asList(reader.getInterfaces()).contains("java/lang/Runnable");
+            }
+        }, new MethodPatch.TreePatch("run", "()V") {
+            @Override
+            protected void transform(MethodNode runMethod, PatchContext context) {
+                System.out.println("Probably the Minecraft class (it has run && is applet!): " + context.getClassName().replace('/', '.'));
 
-            if (instruction.getOpcode() == TABLESWITCH) {
-                TableSwitchInsnNode tableSwitchInsnNode = (TableSwitchInsnNode) instruction;
+                final ListIterator<AbstractInsnNode> iterator = runMethod.instructions.iterator();
+                int firstSwitchJump = -1;
 
-                firstSwitchJump = runMethod.instructions.indexOf(tableSwitchInsnNode.labels.get(0));
-            } else if (firstSwitchJump >= 0 && runMethod.instructions.indexOf(instruction) == firstSwitchJump) {
-                int endOfSwitch = -1;
                 while (iterator.hasNext()) {
-                    instruction = iterator.next();
-                    if (instruction.getOpcode() == GOTO) {
-                        endOfSwitch = runMethod.instructions.indexOf(((JumpInsnNode) instruction).label);
-                        break;
-                    }
-                }
-
-                if (endOfSwitch >= 0) {
-                    while (runMethod.instructions.indexOf(instruction) != endOfSwitch && iterator.hasNext()) {
-                        instruction = iterator.next();
+                    AbstractInsnNode instruction = iterator.next();
+
+                    if (instruction.getOpcode() == TABLESWITCH) {
+                        TableSwitchInsnNode tableSwitchInsnNode = (TableSwitchInsnNode) instruction;
+
+                        firstSwitchJump = runMethod.instructions.indexOf(tableSwitchInsnNode.labels.get(0));
+                    } else if (firstSwitchJump >= 0 && runMethod.instructions.indexOf(instruction) == firstSwitchJump) {
+                        int endOfSwitch = -1;
+                        while (iterator.hasNext()) {
+                            instruction = iterator.next();
+                            if (instruction.getOpcode() == GOTO) {
+                                endOfSwitch = runMethod.instructions.indexOf(((JumpInsnNode) instruction).label);
+                                break;
+                            }
+                        }
+
+                        if (endOfSwitch >= 0) {
+                            while (runMethod.instructions.indexOf(instruction) != endOfSwitch && iterator.hasNext()) {
+                                instruction = iterator.next();
+                            }
+
+                            instruction = iterator.next();
+                            runMethod.instructions.insertBefore(instruction, new MethodInsnNode(INVOKESTATIC, "net/minecraft/launchwrapper/injector/IndevVanillaTweakInjector", "inject", "()Ljava/io/File;", false));
+                            runMethod.instructions.insertBefore(instruction, new VarInsnNode(ASTORE, 2));
+                        }
                     }
-
-                    instruction = iterator.next();
-                    runMethod.instructions.insertBefore(instruction, new MethodInsnNode(INVOKESTATIC, "net/minecraft/launchwrapper/injector/IndevVanillaTweakInjector", "inject", "()Ljava/io/File;", false));
-                    runMethod.instructions.insertBefore(instruction, new VarInsnNode(ASTORE, 2));
                 }
             }
-        }
-
-        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-        classNode.accept(writer);
-        return writer.toByteArray();
+        });
+        // The loaded icons are set on the display by the game thread
+        register(WindowIcons.DISPLAY_USERS, WindowIcons.DISPLAY_PATCH);
     }
 
     public static File inject() {
@@ -0,0 +1,205 @@
+package net.minecraft.launchwrapper.injector;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+
+import java.util.Set;
+
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.MethodNode;
+
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * A change to one method, applied by a {@link PatchingTransformer} while the class streams through it.
+ * <p>
+ * Entry patches insert straight-line, stack neutral code at the start of the method, so the existing
+ * frames stay valid. Patches that rewrite the method body have to request frame computation.
+ */
+public abstract class MethodPatch {
+    /**
+     * Line number of injected code, it shows up in stack traces.
+     */
+    public static final int INJECTED_LINE_NUMBER = 9001;
+
+    private final String methodName;
+    private final String methodDescriptor;
+
+    /**
+     * @param methodName Name of the method to patch
+     * @param methodDescriptor Descriptor of the method to patch, or null for any overload
+     */
+    protected MethodPatch(String methodName, String methodDescriptor) {
+        this.methodName = methodName;
+        this.methodDescriptor = methodDescriptor;
+    }
+
+    public boolean matches(String name, String descriptor) {
+        return methodName.equals(name) && (methodDescriptor == null || methodDescriptor.equals(descriptor));
+    }
+
+    /**
+     * @return Whether the patched method needs its frames recomputed
+     */
+    public boolean requiresFrames() {
+        return false;
+    }
+
+    /**
+     * @param methodVisitor Visitor the patched method has to be passed on to
+     * @param context Class being patched
+     * @return Visitor applying the patch, or the given visitor to leave the method alone
+     */
+    protected abstract MethodVisitor apply(MethodVisitor methodVisitor, PatchContext context);
+
+    /**
+     * Calls a static method at the start of a method, discarding its result.
+     */
+    public static MethodPatch invokeAtEntry(String methodName, String methodDescriptor, String owner, String name, String descriptor) {
+        return new EntryPatch(methodName, methodDescriptor) {
+            @Override
+            protected boolean emit(MethodVisitor methodVisitor, PatchContext context) {
+                methodVisitor.visitMethodInsn(INVOKESTATIC, owner, name, descriptor, false);
+                int size = Type.getReturnType(descriptor).getSize();
+                if (size > 0) {
+                    methodVisitor.visitInsn(size == 2 ? POP2 : POP);
+                }
+                return true;
+            }
+
+            @Override
+            protected int getMaxStack() {
+                return Type.getReturnType(descriptor).getSize();
+            }
+        };
+    }
+
+    /**
+     * Assigns the result of a static method to a static field at the start of a method. The field is the
+     * first static field of the patched class with the return type of the called method.
+     *
+     * @param fieldOwner Internal name of the class to assign the field on, or null for the patched class
+     */
+    public static MethodPatch assignFieldAtEntry(String methodName, String methodDescriptor, String fieldOwner, String owner, String name, String descriptor) {
+        final String fieldDescriptor = Type.getReturnType(descriptor).getDescriptor();
+        return new EntryPatch(methodName, methodDescriptor) {
+            @Override
+            protected boolean emit(MethodVisitor methodVisitor, PatchContext context) {
+                String field = context.findStaticField(fieldDescriptor);
+                if (field == null) {
+                    LogWrapper.warning("No static {} field in {}, not patching {}", fieldDescriptor, context.getClassName(), methodName);
+                    return false;
+                }
+                methodVisitor.visitMethodInsn(INVOKESTATIC, owner, name, descriptor, false);
+                methodVisitor.visitFieldInsn(PUTSTATIC, fieldOwner == null ? context.getClassName() : fieldOwner, field, fieldDescriptor);
+                return true;
+            }
+
+            @Override
+            protected int getMaxStack() {
+                return Type.getReturnType(descriptor).getSize();
+            }
+        };
+    }
+
+    /**
+     * Calls a static, argument-less void method before every call to one of the given static methods, in
+     * every method of the class. The call leaves the stack as it is, so frames stay valid.
+     *
+     * @param callOwner Internal name of the class whose calls are preceded
+     * @param callNames Names of the preceded methods, any overload
+     */
+    public static MethodPatch invokeBeforeCalls(String callOwner, Set<String> callNames, String owner, String name) {
+        return new MethodPatch(null, null) {
+            @Override
+            public boolean matches(String methodName, String descriptor) {
+                return true;
+            }
+
+            @Override
+            protected MethodVisitor apply(MethodVisitor methodVisitor, PatchContext context) {
+                return new MethodVisitor(ASM9, methodVisitor) {
+                    @Override
+                    public void visitMethodInsn(int opcode, String callee, String calleeName, String descriptor, boolean isInterface) {
+                        if (opcode == INVOKESTATIC && callee.equals(callOwner) && callNames.contains(calleeName)) {
+                            super.visitMethodInsn(INVOKESTATIC, owner, name, "()V", false);
+                        }
+                        super.visitMethodInsn(opcode, callee, calleeName, descriptor, isInterface);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Inserts code at the start of a method.
+     */
+    public abstract static class EntryPatch extends MethodPatch {
+
+        protected EntryPatch(String methodName, String methodDescriptor) {
+            super(methodName, methodDescriptor);
+        }
+
+        /**
+         * @return Whether anything was emitted
+         */
+        protected abstract boolean emit(MethodVisitor methodVisitor, PatchContext context);
+
+        /**
+         * @return Stack size the emitted code needs
+         */
+        protected abstract int getMaxStack();
+
+        @Override
+        protected MethodVisitor apply(MethodVisitor methodVisitor, PatchContext context) {
+            return new MethodVisitor(ASM9, methodVisitor) {
+                @Override
+                public void visitCode() {
+                    super.visitCode();
+                    final Label label = new Label();
+                    super.visitLabel(label);
+                    super.visitLineNumber(INJECTED_LINE_NUMBER, label);
+                    emit(mv, context);
+                }
+
+                @Override
+                public void visitMaxs(int maxStack, int maxLocals) {
+                    super.visitMaxs(Math.max(maxStack, getMaxStack()), maxLocals);
+                }
+            };
+        }
+    }
+
+    /**
+     * Rewrites a method as a tree. Only the patched method is expanded, its frames are recomputed.
+     */
+    public abstract static class TreePatch extends MethodPatch {
+
+        protected TreePatch(String methodName, String methodDescriptor) {
+            super(methodName, methodDescriptor);
+        }
+
+        protected abstract void transform(MethodNode method, PatchContext context);
+
+        @Override
+        public boolean requiresFrames() {
+            return true;
+        }
+
+        @Override
+        protected MethodVisitor apply(MethodVisitor methodVisitor, PatchContext context) {
+            return new MethodNode(ASM9) {
+                @Override
+                public void visitEnd() {
+                    transform(this, context);
+                    accept(methodVisitor);
+                }
+            };
+        }
+    }
+}
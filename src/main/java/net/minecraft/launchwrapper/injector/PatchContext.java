@@ -0,0 +1,49 @@
+package net.minecraft.launchwrapper.injector;
+
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a {@link MethodPatch} knows about the class being patched. Fields are complete by the time methods
+ * are patched, class files list them first.
+ */
+public class PatchContext {
+    private final Map<String, String> staticFields = new HashMap<>();
+    private String className;
+    private String[] interfaces;
+
+    void visitClass(String className, String[] interfaces) {
+        this.className = className;
+        this.interfaces = interfaces == null ? new String[0] : interfaces;
+    }
+
+    void visitField(int access, String name, String descriptor) {
+        if ((access & ACC_STATIC) == ACC_STATIC) {
+            staticFields.putIfAbsent(descriptor, name);
+        }
+    }
+
+    /**
+     * @return Internal name of the class
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return Internal names of the interfaces the class implements
+     */
+    public String[] getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @param descriptor Field descriptor
+     * @return Name of the first static field of the class with the descriptor, or null
+     */
+    public String findStaticField(String descriptor) {
+        return staticFields.get(descriptor);
+    }
+}
@@ -0,0 +1,125 @@
+package net.minecraft.launchwrapper.injector;
+
+import static org.objectweb.asm.Opcodes.ASM9;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+import net.minecraft.launchwrapper.IClassTransformer;
+
+/**
+ * Applies {@link MethodPatch}es in a single pass over each class. All patches of a class share one visitor,
+ * methods without patches are copied from the reader as they are and frames are only computed when a patch
+ * rewrites a method body.
+ * <p>
+ * Subclasses register their patches in the constructor and get registered as transformers themselves.
+ */
+public class PatchingTransformer implements IClassTransformer {
+    private final Map<String, List<MethodPatch>> classPatches = new HashMap<>();
+    private final List<Map.Entry<ClassMatcher, MethodPatch>> matchedPatches = new ArrayList<>();
+
+    /**
+     * @param className Class name, see {@link Class#getName()}
+     * @param patch Patch for a method of the class
+     */
+    public void register(String className, MethodPatch patch) {
+        classPatches.computeIfAbsent(className, key -> new ArrayList<>()).add(patch);
+    }
+
+    /**
+     * Registers a patch for every class the matcher selects. Every class has to be parsed to check, so prefer
+     * {@link #register(String, MethodPatch)} whenever the class name is known.
+     */
+    public void register(ClassMatcher matcher, MethodPatch patch) {
+        matchedPatches.add(new AbstractMap.SimpleImmutableEntry<>(matcher, patch));
+    }
+
+    @Override
+    public byte[] transform(final String name, final String transformedName, final byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+
+        List<MethodPatch> patches = classPatches.get(name);
+        ClassReader classReader = null;
+        for (Map.Entry<ClassMatcher, MethodPatch> matchedPatch : matchedPatches) {
+            ClassMatcher matcher = matchedPatch.getKey();
+            if (!matcher.mayMatch(name, bytes)) {
+                continue;
+            }
+            // Only parsed once a matcher can't decide from the raw bytes
+            if (classReader == null) {
+                classReader = new ClassReader(bytes);
+            }
+            if (matcher.matches(name, classReader)) {
+                // Copy before adding, the registered list has to stay as it is
+                List<MethodPatch> merged = patches == null ? new ArrayList<>() : new ArrayList<>(patches);
+                merged.add(matchedPatch.getValue());
+                patches = merged;
+            }
+        }
+        if (patches == null) {
+            return bytes;
+        }
+        if (classReader == null) {
+            classReader = new ClassReader(bytes);
+        }
+
+        boolean computeFrames = false;
+        for (MethodPatch patch : patches) {
+            computeFrames |= patch.requiresFrames();
+        }
+
+        // Sharing the reader lets the writer copy methods that pass through unchanged
+        final ClassWriter writer = new ClassWriter(classReader, computeFrames ? ClassWriter.COMPUTE_FRAMES : 0);
+        final PatchingClassVisitor visitor = new PatchingClassVisitor(writer, patches);
+        classReader.accept(visitor, 0);
+        return visitor.patched ? writer.toByteArray() : bytes;
+    }
+
+    private static class PatchingClassVisitor extends ClassVisitor {
+        private final List<MethodPatch> patches;
+        private final PatchContext context = new PatchContext();
+        private boolean patched;
+
+        PatchingClassVisitor(ClassVisitor classVisitor, List<MethodPatch> patches) {
+            super(ASM9, classVisitor);
+            this.patches = patches;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            context.visitClass(name, interfaces);
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            context.visitField(access, name, descriptor);
+            return super.visitField(access, name, descriptor, signature, value);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+            // Wrap in reverse, so patches run in registration order
+            for (int i = patches.size() - 1; i >= 0; i--) {
+                MethodPatch patch = patches.get(i);
+                if (patch.matches(name, descriptor)) {
+                    methodVisitor = patch.apply(methodVisitor, context);
+                    patched = true;
+                }
+            }
+            return methodVisitor;
+        }
+    }
+}
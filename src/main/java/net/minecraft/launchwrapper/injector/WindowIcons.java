@@ -0,0 +1,148 @@
+package net.minecraft.launchwrapper.injector;
+
+import java.awt.EventQueue;
+import java.awt.Frame;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.imageio.ImageIO;
+
+import org.lwjgl.opengl.Display;
+
+/**
+ * Loads the window icons on a background thread. Each icon is decoded once and handed to both the LWJGL
+ * display and the AWT frames through a {@link Sink}.
+ * <p>
+ * Neither is touched from the loading thread. AWT frames get their icons on the event dispatch thread, the
+ * display icons are kept until the game thread next calls {@code Display.create} or {@code Display.update},
+ * see {@link #DISPLAY_PATCH}.
+ */
+public class WindowIcons {
+    private static final String DISPLAY_CLASS = "org/lwjgl/opengl/Display";
+    private static final AtomicReference<ByteBuffer[]> pendingDisplayIcons = new AtomicReference<>();
+
+    /**
+     * Selects classes calling into the LWJGL display. They are patched regardless of whether icons are still
+     * pending, as transformed classes are cached across launches.
+     */
+    public static final ClassMatcher DISPLAY_USERS = ClassMatcher.referencing(DISPLAY_CLASS);
+
+    /**
+     * Sets pending display icons on the calling thread right before the game creates or updates the display.
+     */
+    public static final MethodPatch DISPLAY_PATCH = MethodPatch.invokeBeforeCalls(DISPLAY_CLASS,
+            new HashSet<>(Arrays.asList("create", "update")), "net/minecraft/launchwrapper/injector/WindowIcons", "applyDisplayIcons");
+
+    /**
+     * Receives the decoded icons, a fake sink allows loading them without a display.
+     */
+    public interface Sink {
+
+        /**
+         * @param icons Icons as RGBA pixels
+         */
+        void setDisplayIcons(ByteBuffer[] icons);
+
+        void setFrameIcons(List<Image> icons);
+    }
+
+    /**
+     * Creates a sink for the game window: display icons are handed to the game thread, frame icons are set on
+     * the AWT frames open now, from the event dispatch thread.
+     */
+    public static Sink createGameSink() {
+        final Frame[] frames = Frame.getFrames();
+        return new Sink() {
+            @Override
+            public void setDisplayIcons(ByteBuffer[] icons) {
+                pendingDisplayIcons.set(icons);
+            }
+
+            @Override
+            public void setFrameIcons(List<Image> icons) {
+                if (frames.length == 0) {
+                    return;
+                }
+                EventQueue.invokeLater(() -> {
+                    for (Frame frame : frames) {
+                        try {
+                            frame.setIconImages(icons);
+                        } catch (Throwable throwable) {
+                            throwable.printStackTrace();
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * Called by patched game code before {@code Display.create} and {@code Display.update}.
+     */
+    public static void applyDisplayIcons() {
+        if (pendingDisplayIcons.get() == null) {
+            return;
+        }
+        final ByteBuffer[] icons = pendingDisplayIcons.getAndSet(null);
+        if (icons != null) {
+            Display.setIcon(icons);
+        }
+    }
+
+    /**
+     * Decodes the icons on a daemon thread and passes them to the sink once done.
+     *
+     * @return Completes when the icons have been applied, or exceptionally if they could not be loaded
+     */
+    public static CompletableFuture<Void> loadAsync(final File[] iconFiles, final Sink sink) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                load(iconFiles, sink);
+                result.complete(null);
+            } catch (Throwable t) {
+                t.printStackTrace();
+                result.completeExceptionally(t);
+            }
+        }, "LaunchWrapper-Icons");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    public static void load(final File[] iconFiles, final Sink sink) throws IOException {
+        final ByteBuffer[] displayIcons = new ByteBuffer[iconFiles.length];
+        final List<Image> frameIcons = new ArrayList<>(iconFiles.length);
+        for (int i = 0; i < iconFiles.length; i++) {
+            final BufferedImage icon = ImageIO.read(iconFiles[i]);
+            if (icon == null) {
+                throw new IOException("Unsupported icon image " + iconFiles[i]);
+            }
+            displayIcons[i] = toRGBA(icon);
+            frameIcons.add(icon);
+        }
+        sink.setDisplayIcons(displayIcons);
+        sink.setFrameIcons(frameIcons);
+    }
+
+    private static ByteBuffer toRGBA(final BufferedImage icon) {
+        final int[] pixels = icon.getRGB(0, 0, icon.getWidth(), icon.getHeight(), null, 0, icon.getWidth());
+        for (int i = 0; i < pixels.length; i++) {
+            // ARGB to RGBA
+            pixels[i] = pixels[i] << 8 | pixels[i] >>> 24;
+        }
+        // Big endian, so every int is written as R, G, B, A
+        final ByteBuffer buffer = ByteBuffer.allocate(4 * pixels.length);
+        buffer.asIntBuffer().put(pixels);
+        return buffer;
+    }
+}
@@ -0,0 +1,114 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.mojang.authlib.Agent;
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.GameProfileRepository;
+import com.mojang.authlib.ProfileLookupCallback;
+import com.mojang.authlib.yggdrasil.ProfileNotFoundException;
+
+/**
+ * Resolves usernames to profiles in batches. Names requested within {@code legacy.profileBatchWindow}
+ * milliseconds of the first one go out as a single {@link GameProfileRepository#findProfilesByNames} call,
+ * each caller then gets its own result.
+ */
+public class BatchingProfileResolver {
+    private static final long WINDOW = Long.getLong("legacy.profileBatchWindow", 5);
+    // The profile API accepts at most 10 names per request
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private final GameProfileRepository repository;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LaunchWrapper-ProfileBatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Map<String, CompletableFuture<GameProfile>> pending = new LinkedHashMap<>();
+
+    public BatchingProfileResolver(GameProfileRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Queues a name for the next batch. Doesn't block, so callers on a small pool can't hold a batch back.
+     *
+     * @param username Player name
+     * @return Future of the profile of the player, completed with null if there is no such player and
+     *         exceptionally if the lookup failed or gave no answer for this name
+     */
+    public CompletableFuture<GameProfile> resolve(String username) {
+        String key = username.toLowerCase(Locale.ROOT);
+        CompletableFuture<GameProfile> profile;
+        synchronized (this) {
+            profile = pending.get(key);
+            if (profile == null) {
+                profile = new CompletableFuture<>();
+                pending.put(key, profile);
+                final Map<String, CompletableFuture<GameProfile>> batch = pending;
+                if (batch.size() >= MAX_BATCH_SIZE) {
+                    pending = new LinkedHashMap<>();
+                    scheduler.execute(() -> lookup(batch));
+                } else if (batch.size() == 1) {
+                    scheduler.schedule(() -> flush(batch), WINDOW, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return profile;
+    }
+
+    private void flush(Map<String, CompletableFuture<GameProfile>> batch) {
+        synchronized (this) {
+            // Already sent once it filled up
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        lookup(batch);
+    }
+
+    private void lookup(final Map<String, CompletableFuture<GameProfile>> batch) {
+        try {
+            repository.findProfilesByNames(batch.keySet().toArray(new String[0]), Agent.MINECRAFT, new ProfileLookupCallback() {
+                public void onProfileLookupSucceeded(GameProfile paramGameProfile) {
+                    CompletableFuture<GameProfile> profile = batch.get(paramGameProfile.getName().toLowerCase(Locale.ROOT));
+                    if (profile != null) {
+                        profile.complete(paramGameProfile);
+                    }
+                }
+                public void onProfileLookupFailed(GameProfile paramGameProfile, Exception paramException) {
+                    if (paramGameProfile == null || paramGameProfile.getName() == null) {
+                        return;
+                    }
+                    CompletableFuture<GameProfile> profile = batch.get(paramGameProfile.getName().toLowerCase(Locale.ROOT));
+                    if (profile == null) {
+                        return;
+                    }
+                    // Only a missing player is an answer, anything else must not end up cached
+                    if (paramException instanceof ProfileNotFoundException) {
+                        profile.complete(null);
+                    } else {
+                        profile.completeExceptionally(paramException);
+                    }
+                }
+            });
+        } catch (Throwable t) {
+            for (CompletableFuture<GameProfile> profile : batch.values()) {
+                profile.completeExceptionally(t);
+            }
+        }
+
+        // Only a ProfileNotFoundException says a player doesn't exist, a name without any result is an error
+        for (Map.Entry<String, CompletableFuture<GameProfile>> profile : batch.entrySet()) {
+            profile.getValue().completeExceptionally(new IOException("Profile lookup returned no result for " + profile.getKey()));
+        }
+    }
+}
@@ -1,22 +1,41 @@
 package net.minecraft.launchwrapper.protocol;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.Proxy;
 import java.net.URL;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
-import com.mojang.authlib.Agent;
-import com.mojang.authlib.GameProfile;
-import com.mojang.authlib.ProfileLookupCallback;
 import com.mojang.authlib.minecraft.MinecraftProfileTexture;
-import com.mojang.authlib.yggdrasil.YggdrasilAuthenticationService;
 
 public class CapeURLConnection extends HttpURLConnection {
 	
+	private final CompletableFuture<byte[]> texture;
+
 	public CapeURLConnection(URL url) {
 		super(url);
+		String username = getUsername(url);
+
+		// Start fetching right away, connect only waits for the result
+		texture = TextureFetcher.get().fetch("cape:" + username.toLowerCase(Locale.ROOT), getUserCape(username), cape -> {
+			if (cape == null) {
+				throw new FileNotFoundException("No cape for " + username);
+			}
+			return TextureFetcher.download(new URL(cape.getUrl()));
+		});
+	}
+
+	static String getUsername(URL url) {
+		String urlString = url.toString();
+		return urlString.contains("/MinecraftCloaks/")
+				? urlString.substring(urlString.indexOf("/MinecraftCloaks/"))
+						.replace("/MinecraftCloaks/", "")
+						.replace(".png", "")
+						: urlString.substring(urlString.indexOf("/cloak/get.jsp?user="))
+						.replace("/cloak/get.jsp?user=", "");
 	}
 
 	@Override
@@ -32,54 +51,31 @@ public class CapeURLConnection extends HttpURLConnection {
 	int responseCode = 200;
 
 	@Override
-	public void connect() throws IOException {
-		String url = this.url.toString();
-		String username = url.contains("/MinecraftCloaks/")
-				? url.substring(url.indexOf("/MinecraftCloaks/"))
-						.replace("/MinecraftCloaks/", "")
-						.replace(".png", "")
-						: url.substring(url.indexOf("/cloak/get.jsp?user="))
-						.replace("/cloak/get.jsp?user=", "");
-
-						try {
-							MinecraftProfileTexture cape = getUserCape(username);
-							inputStream = new URL(cape.getUrl()).openConnection().getInputStream();
-						} catch (Exception ex) {
-							responseCode = 404;
-						}
+	public synchronized void connect() throws IOException {
+		if (connected) {
+			return;
+		}
+		try {
+			inputStream = new ByteArrayInputStream(TextureFetcher.await(texture));
+		} catch (Exception ex) {
+			responseCode = 404;
+		}
+		connected = true;
 	}
 
-	YggdrasilAuthenticationService authenticationService = new YggdrasilAuthenticationService(Proxy.NO_PROXY, (String)null);
-	GameProfile gameProfile = null;
-
-	private MinecraftProfileTexture getUserCape(String username) {
-		authenticationService.createProfileRepository().findProfilesByNames(new String[] { username }, Agent.MINECRAFT, new ProfileLookupCallback() {
-			public void onProfileLookupSucceeded(GameProfile paramGameProfile) {
-				gameProfile = paramGameProfile;
-			}
-			public void onProfileLookupFailed(GameProfile paramGameProfile, Exception paramException) {
-			}
-		});
-
-		if (gameProfile == null)
-			return null;
-
-		gameProfile = authenticationService.createMinecraftSessionService().fillProfileProperties(gameProfile, true);
-
-		Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> textures = authenticationService.createMinecraftSessionService().getTextures(gameProfile, true);
-		if (textures.containsKey(MinecraftProfileTexture.Type.CAPE))
-			return textures.get(MinecraftProfileTexture.Type.CAPE);
-
-		return null;
+	private static CompletableFuture<MinecraftProfileTexture> getUserCape(String username) {
+		return ProfileCache.get().getTextureAsync(username, MinecraftProfileTexture.Type.CAPE);
 	}
 
 	@Override
 	public InputStream getInputStream() throws IOException {
+		connect();
 		return inputStream;
 	}
 
 	@Override
-	public int getResponseCode() {
+	public int getResponseCode() throws IOException {
+		connect();
 		return responseCode;
 	}
 	
@@ -4,22 +4,84 @@ import java.io.IOException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 import sun.net.www.protocol.http.HttpURLConnection;
 
 public class LegacyProtocolURLStreamHandler extends URLStreamHandler {
+	private static final Route[] NO_ROUTES = new Route[0];
+
+	// Immutable snapshots, replaced on registration so lookups need no locking
+	private static volatile Map<String, Route[]> hostRoutes = new HashMap<String, Route[]>();
+	private static volatile Route[] anyHostRoutes = NO_ROUTES;
+
+	static {
+		// Skins are pulled from the new endpoint and converted to the legacy format as required.
+		registerRoute(null, "/skin/", SkinURLConnection::new);
+		registerRoute("s3.amazonaws.com", "/MinecraftSkins/", SkinURLConnection::new);
+		// Capes are pulled from the new endpoint, no conversion is required.
+		registerRoute(null, "/cloak/get.jsp?user=", CapeURLConnection::new);
+		registerRoute("s3.amazonaws.com", "/MinecraftCloaks/", CapeURLConnection::new);
+		// Local textures take precedence when configured
+		OfflineTextureServer.install();
+	}
+
+	/**
+	 * Routes HTTP URLs to a legacy endpoint emulation. Routes registered later take precedence.
+	 *
+	 * @param host Host to match, or null to match any host
+	 * @param pathPrefix Prefix of the URL path, including the query if there is one, to match
+	 * @param handler Opens connections for matching URLs
+	 */
+	public static synchronized void registerRoute(String host, String pathPrefix, RouteHandler handler) {
+		Route route = new Route(pathPrefix, handler);
+		if (host == null) {
+			anyHostRoutes = prepend(route, anyHostRoutes);
+		} else {
+			String key = host.toLowerCase(Locale.ROOT);
+			Map<String, Route[]> routes = new HashMap<String, Route[]>(hostRoutes);
+			Route[] existing = routes.get(key);
+			routes.put(key, prepend(route, existing == null ? NO_ROUTES : existing));
+			hostRoutes = routes;
+		}
+	}
 
 	@Override
 	protected URLConnection openConnection(URL url) throws IOException {
-		// Skins are pulled from the new endpoint and converted to the legacy format as required.
-		if (url.toString().startsWith("http://s3.amazonaws.com/MinecraftSkins/") || url.toString().contains("/skin/")) {
-			return new SkinURLConnection(url);
+		// Path and query, get.jsp is only emulated when a user is given
+		String path = url.getFile();
+		Route[] routes = hostRoutes.get(url.getHost().toLowerCase(Locale.ROOT));
+		if (routes != null) {
+			for (Route route : routes) {
+				if (path.startsWith(route.pathPrefix)) {
+					return route.handler.openConnection(url);
+				}
+			}
 		}
-		// Capes are pulled from the new endpoint, no conversion is required.
-		else if (url.toString().startsWith("http://s3.amazonaws.com//MinecraftCloaks//") || url.toString().contains("/cloak/get.jsp?user=")) {
-			return new CapeURLConnection(url);
+		for (Route route : anyHostRoutes) {
+			if (path.startsWith(route.pathPrefix)) {
+				return route.handler.openConnection(url);
+			}
 		}
 		return new HttpURLConnection(url, null);
 	}
 
-}
\ No newline at end of file
+	private static Route[] prepend(Route route, Route[] routes) {
+		Route[] result = new Route[routes.length + 1];
+		result[0] = route;
+		System.arraycopy(routes, 0, result, 1, routes.length);
+		return result;
+	}
+
+	private static class Route {
+		final String pathPrefix;
+		final RouteHandler handler;
+
+		Route(String pathPrefix, RouteHandler handler) {
+			this.pathPrefix = pathPrefix;
+			this.handler = handler;
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package net.minecraft.launchwrapper.protocol;
+
+/**
+ * Converts modern 64x64 skins to the legacy 64x32 layout on a plain ARGB raster: slim arms are stretched to
+ * classic ones and the second layer is flattened onto the first. Pixels are composited source-over, the same
+ * way the former {@code Graphics2D} based conversion drew them, without going through Java2D.
+ */
+public class LegacySkinConverter {
+    public static final int LEGACY_WIDTH = 64;
+    public static final int LEGACY_HEIGHT = 32;
+
+    // Part moves as {sourceX, sourceY, width, height, targetX, targetY}, in drawing order
+    private static final int[][] STRETCH_RIGHT_ARM = {
+            { 45, 16, 9, 16, 46, 16 },
+            { 49, 16, 2, 4, 50, 16 },
+            { 53, 20, 2, 12, 54, 20 },
+    };
+    private static final int[][] STRETCH_TALL_SLIM = {
+            // Right sleeve
+            { 45, 32, 9, 16, 46, 32 },
+            { 49, 32, 2, 4, 50, 32 },
+            { 53, 36, 2, 12, 54, 36 },
+            // Left arm
+            { 37, 48, 9, 16, 38, 48 },
+            { 41, 48, 2, 4, 42, 32 },
+            { 45, 52, 2, 12, 46, 36 },
+            // Left sleeve
+            { 53, 48, 9, 16, 54, 48 },
+            { 57, 48, 2, 4, 58, 32 },
+            { 61, 52, 2, 12, 62, 36 },
+    };
+    private static final int[][] FLATTEN_LAYERS = {
+            { 0, 32, 56, 16, 0, 16 },
+    };
+
+    /**
+     * @param pixels Modern skin as ARGB pixels, row by row. Modified in place.
+     * @param width Width of the skin, at least 64
+     * @param height Height of the skin, at least 32
+     * @param slim Whether the skin uses the slim arm model
+     * @return Legacy 64x32 skin as ARGB pixels
+     */
+    public static int[] convert(int[] pixels, int width, int height, boolean slim) {
+        if (width < LEGACY_WIDTH || height < LEGACY_HEIGHT || pixels.length < width * height) {
+            throw new IllegalArgumentException("Unsupported skin size " + width + "x" + height);
+        }
+        boolean tall = height > 32;
+        int[] part = new int[9 * 16];
+
+        if (slim) {
+            movePart(pixels, width, height, part, STRETCH_RIGHT_ARM);
+            if (tall) {
+                movePart(pixels, width, height, part, STRETCH_TALL_SLIM);
+            }
+        }
+        if (tall) {
+            part = new int[56 * 16];
+            movePart(pixels, width, height, part, FLATTEN_LAYERS);
+        }
+
+        // Crop
+        int[] legacy = new int[LEGACY_WIDTH * LEGACY_HEIGHT];
+        for (int y = 0; y < LEGACY_HEIGHT; y++) {
+            System.arraycopy(pixels, y * width, legacy, y * LEGACY_WIDTH, LEGACY_WIDTH);
+        }
+        return legacy;
+    }
+
+    private static void movePart(int[] pixels, int width, int height, int[] part, int[][] moves) {
+        for (int[] move : moves) {
+            int sourceX = move[0], sourceY = move[1], partWidth = move[2], partHeight = move[3];
+            int targetX = move[4], targetY = move[5];
+            if (sourceX + partWidth > width || sourceY + partHeight > height) {
+                throw new IllegalArgumentException("Part outside of skin");
+            }
+
+            // Copy the part out first, source and target overlap
+            for (int y = 0; y < partHeight; y++) {
+                System.arraycopy(pixels, (sourceY + y) * width + sourceX, part, y * partWidth, partWidth);
+            }
+
+            int maxX = Math.min(partWidth, width - targetX);
+            int maxY = Math.min(partHeight, height - targetY);
+            for (int y = 0; y < maxY; y++) {
+                int row = (targetY + y) * width + targetX;
+                for (int x = 0; x < maxX; x++) {
+                    pixels[row + x] = sourceOver(part[y * partWidth + x], pixels[row + x]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Composites non-premultiplied ARGB colors.
+     */
+    static int sourceOver(int source, int target) {
+        int sourceAlpha = source >>> 24;
+        if (sourceAlpha == 0xFF) {
+            return source;
+        }
+        if (sourceAlpha == 0) {
+            return target;
+        }
+        int targetAlpha = target >>> 24;
+        int targetFactor = mul8(0xFF - sourceAlpha, targetAlpha);
+        int alpha = sourceAlpha + targetFactor;
+        int red = blend(source >> 16 & 0xFF, sourceAlpha, target >> 16 & 0xFF, targetFactor, alpha);
+        int green = blend(source >> 8 & 0xFF, sourceAlpha, target >> 8 & 0xFF, targetFactor, alpha);
+        int blue = blend(source & 0xFF, sourceAlpha, target & 0xFF, targetFactor, alpha);
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    private static int blend(int source, int sourceAlpha, int target, int targetFactor, int alpha) {
+        int premultiplied = mul8(sourceAlpha, source) + mul8(targetFactor, target);
+        return alpha < 0xFF ? div8(premultiplied, alpha) : premultiplied;
+    }
+
+    // Same rounding as the Java2D alpha tables, so translucent pixels come out as they did with Graphics2D
+    private static int mul8(int a, int b) {
+        return (int) ((a * 0x10101L * b + (1 << 23)) >>> 24);
+    }
+
+    private static int div8(int value, int alpha) {
+        if (value >= alpha) {
+            return 0xFF;
+        }
+        long increment = ((0xFFL << 24) + alpha / 2) / alpha;
+        return (int) ((value * increment + (1 << 23)) >>> 24);
+    }
+}
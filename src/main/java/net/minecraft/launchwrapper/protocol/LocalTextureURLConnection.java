@@ -0,0 +1,53 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Serves a texture already held in memory, or a 404 if there is none.
+ */
+public class LocalTextureURLConnection extends HttpURLConnection {
+    private final byte[] texture;
+
+    public LocalTextureURLConnection(URL url, byte[] texture) {
+        super(url);
+        this.texture = texture;
+    }
+
+    @Override
+    public void connect() {
+        connected = true;
+    }
+
+    @Override
+    public void disconnect() {
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return false;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return texture == null ? null : new ByteArrayInputStream(texture);
+    }
+
+    @Override
+    public int getResponseCode() {
+        return texture == null ? 404 : 200;
+    }
+
+    @Override
+    public String getContentType() {
+        return texture == null ? null : "image/png";
+    }
+
+    @Override
+    public int getContentLength() {
+        return texture == null ? -1 : texture.length;
+    }
+}
@@ -0,0 +1,136 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Serves skins and capes from a local directory or zip pack instead of Mojang's services, enabled by pointing
+ * {@code legacy.offlineTextures} at it. Textures are looked up by username as {@code skins/<username>.png}
+ * and {@code capes/<username>.png}, and are read into memory once when the server starts.
+ * <p>
+ * Modern 64x64 skins are converted to the legacy layout on first use, slim skins can be placed under
+ * {@code skins/slim/} instead.
+ */
+public class OfflineTextureServer {
+    public static final String PATH = System.getProperty("legacy.offlineTextures");
+
+    private final Map<String, byte[]> skins = new ConcurrentHashMap<String, byte[]>();
+    private final Map<String, byte[]> slimSkins = new ConcurrentHashMap<String, byte[]>();
+    private final Map<String, byte[]> capes = new ConcurrentHashMap<String, byte[]>();
+
+    public OfflineTextureServer(File source) throws IOException {
+        if (source.isDirectory()) {
+            indexDirectory(new File(source, "skins"), skins);
+            indexDirectory(new File(source, "skins/slim"), slimSkins);
+            indexDirectory(new File(source, "capes"), capes);
+        } else {
+            try (ZipFile pack = new ZipFile(source)) {
+                Enumeration<? extends ZipEntry> entries = pack.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if (entry.isDirectory() || !name.endsWith(".png")) {
+                        continue;
+                    }
+                    Map<String, byte[]> textures = name.startsWith("skins/slim/") ? slimSkins
+                            : name.startsWith("skins/") ? skins : name.startsWith("capes/") ? capes : null;
+                    if (textures != null && name.indexOf('/', name.startsWith("skins/slim/") ? 11 : 6) == -1) {
+                        try (InputStream stream = pack.getInputStream(entry)) {
+                            textures.put(getKey(name.substring(name.lastIndexOf('/') + 1)), TextureFetcher.readAll(stream));
+                        }
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, byte[]> slimSkin : slimSkins.entrySet()) {
+            skins.putIfAbsent(slimSkin.getKey(), slimSkin.getValue());
+        }
+        LogWrapper.info("Serving {} skins and {} capes from {}", skins.size(), capes.size(), source);
+    }
+
+    /**
+     * Routes the legacy skin and cape endpoints to the server if {@code legacy.offlineTextures} is set.
+     */
+    static void install() {
+        if (PATH == null) {
+            return;
+        }
+        OfflineTextureServer server;
+        try {
+            server = new OfflineTextureServer(new File(PATH));
+        } catch (IOException e) {
+            LogWrapper.severe("Failed to load offline textures from {}", PATH, e);
+            return;
+        }
+        RouteHandler skinHandler = url -> new LocalTextureURLConnection(url, server.getSkin(SkinURLConnection.getUsername(url)));
+        RouteHandler capeHandler = url -> new LocalTextureURLConnection(url, server.getCape(CapeURLConnection.getUsername(url)));
+        LegacyProtocolURLStreamHandler.registerRoute(null, "/skin/", skinHandler);
+        LegacyProtocolURLStreamHandler.registerRoute("s3.amazonaws.com", "/MinecraftSkins/", skinHandler);
+        LegacyProtocolURLStreamHandler.registerRoute(null, "/cloak/get.jsp?user=", capeHandler);
+        LegacyProtocolURLStreamHandler.registerRoute("s3.amazonaws.com", "/MinecraftCloaks/", capeHandler);
+    }
+
+    /**
+     * @return Legacy skin of the player, or null if there is none
+     */
+    public byte[] getSkin(String username) {
+        String key = username.toLowerCase(Locale.ROOT);
+        byte[] skin = skins.get(key);
+        if (skin == null || isLegacySize(skin)) {
+            return skin;
+        }
+
+        // Convert once, later requests get the converted skin
+        try {
+            byte[] legacySkin = SkinURLConnection.convertModernSkinToBytes(skin, slimSkins.get(key) == skin);
+            skins.replace(key, skin, legacySkin);
+            return legacySkin;
+        } catch (IOException | IllegalArgumentException e) {
+            LogWrapper.warning("Failed to convert offline skin of {}", username, e);
+            skins.remove(key, skin);
+            return null;
+        }
+    }
+
+    /**
+     * @return Cape of the player, or null if there is none
+     */
+    public byte[] getCape(String username) {
+        return capes.get(username.toLowerCase(Locale.ROOT));
+    }
+
+    private static void indexDirectory(File directory, Map<String, byte[]> textures) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".png"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                textures.put(getKey(file.getName()), Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+
+    private static String getKey(String fileName) {
+        return fileName.substring(0, fileName.length() - ".png".length()).toLowerCase(Locale.ROOT);
+    }
+
+    // Reads the size from the IHDR chunk, which directly follows the PNG signature
+    private static boolean isLegacySize(byte[] png) {
+        return png.length > 24 && readInt(png, 16) == LegacySkinConverter.LEGACY_WIDTH && readInt(png, 20) == LegacySkinConverter.LEGACY_HEIGHT;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+}
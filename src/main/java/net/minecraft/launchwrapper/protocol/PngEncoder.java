@@ -0,0 +1,72 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal PNG encoder for small ARGB images such as legacy skins, writes 8 bit RGBA without filtering.
+ */
+public class PngEncoder {
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    public static byte[] encode(int[] pixels, int width, int height) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(width * height + 128);
+            out.write(SIGNATURE);
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+            DataOutputStream headerData = new DataOutputStream(header);
+            headerData.writeInt(width);
+            headerData.writeInt(height);
+            headerData.writeByte(8); // Bit depth
+            headerData.writeByte(6); // Color type RGBA
+            headerData.writeByte(0); // Compression
+            headerData.writeByte(0); // Filter
+            headerData.writeByte(0); // Interlace
+            writeChunk(out, "IHDR", header.toByteArray());
+
+            byte[] raw = new byte[height * (width * 4 + 1)];
+            int i = 0;
+            for (int y = 0; y < height; y++) {
+                raw[i++] = 0; // No filter
+                for (int x = 0; x < width; x++) {
+                    int pixel = pixels[y * width + x];
+                    raw[i++] = (byte) (pixel >> 16);
+                    raw[i++] = (byte) (pixel >> 8);
+                    raw[i++] = (byte) pixel;
+                    raw[i++] = (byte) (pixel >>> 24);
+                }
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream deflaterStream = new DeflaterOutputStream(compressed, deflater)) {
+                deflaterStream.write(raw);
+            } finally {
+                deflater.end();
+            }
+            writeChunk(out, "IDAT", compressed.toByteArray());
+            writeChunk(out, "IEND", new byte[0]);
+            return out.toByteArray();
+        } catch (IOException e) {
+            // Only in-memory streams are involved
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+        DataOutputStream chunk = new DataOutputStream(out);
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        chunk.writeInt(data.length);
+        chunk.write(typeBytes);
+        chunk.write(data);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        chunk.writeInt((int) crc.getValue());
+    }
+}
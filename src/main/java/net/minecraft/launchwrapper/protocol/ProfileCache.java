@@ -0,0 +1,147 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.minecraft.MinecraftProfileTexture;
+
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Shared cache of username to textures for the skin and cape connections.
+ * <p>
+ * Concurrent lookups of the same player share one request, results (including unknown players) are kept for
+ * {@code legacy.profileCacheTtl} seconds. Failed lookups are not cached.
+ */
+public class ProfileCache {
+    private static final long TTL = TimeUnit.SECONDS.toNanos(Long.parseLong(System.getProperty("legacy.profileCacheTtl", "600")));
+    private static final ProfileCache INSTANCE = new ProfileCache();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private volatile ProfileService service;
+
+    public static ProfileCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Replaces the profile service, e.g. with a local one. Clears all cached profiles.
+     */
+    public void setService(ProfileService service) {
+        this.service = service;
+        entries.clear();
+    }
+
+    public ProfileService getService() {
+        ProfileService service = this.service;
+        if (service == null) {
+            synchronized (this) {
+                if (this.service == null) {
+                    this.service = new YggdrasilProfileService();
+                }
+                service = this.service;
+            }
+        }
+        return service;
+    }
+
+    /**
+     * @param username Player name
+     * @param type Texture type
+     * @return Texture of the player, or null if the player or texture does not exist
+     * @throws Exception If the lookup failed
+     */
+    public MinecraftProfileTexture getTexture(String username, MinecraftProfileTexture.Type type) throws Exception {
+        return getTextures(username).get(type);
+    }
+
+    public Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> getTextures(String username) throws Exception {
+        try {
+            return getTexturesAsync(username).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * @param username Player name
+     * @param type Texture type
+     * @return Future of the texture of the player, completed with null if the player or texture does not exist
+     */
+    public CompletableFuture<MinecraftProfileTexture> getTextureAsync(String username, MinecraftProfileTexture.Type type) {
+        return getTexturesAsync(username).thenApply(textures -> textures.get(type));
+    }
+
+    /**
+     * Starts looking up the textures of a player without blocking the caller. The profile is resolved by
+     * {@link ProfileService#findProfileAsync(String)}, the textures are then read on the texture pool.
+     */
+    public CompletableFuture<Map<MinecraftProfileTexture.Type, MinecraftProfileTexture>> getTexturesAsync(String username) {
+        final String key = username.toLowerCase(Locale.ROOT);
+        final long now = System.nanoTime();
+
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                return entry.textures;
+            }
+            Entry newEntry = new Entry(now + TTL);
+            if (entry == null ? entries.putIfAbsent(key, newEntry) == null : entries.replace(key, entry, newEntry)) {
+                // This thread starts the lookup, everyone else shares its future
+                lookup(username).whenComplete((textures, failure) -> {
+                    if (failure != null) {
+                        entries.remove(key, newEntry);
+                        newEntry.textures.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+                    } else {
+                        newEntry.textures.complete(textures);
+                    }
+                });
+                return newEntry.textures;
+            }
+        }
+    }
+
+    private CompletableFuture<Map<MinecraftProfileTexture.Type, MinecraftProfileTexture>> lookup(String username) {
+        final ProfileService service = getService();
+        CompletableFuture<GameProfile> profile;
+        try {
+            profile = service.findProfileAsync(username);
+        } catch (Throwable t) {
+            profile = new CompletableFuture<>();
+            profile.completeExceptionally(t);
+        }
+        return profile.thenComposeAsync(found -> {
+            if (found == null) {
+                LogWrapper.fine("No profile found for {}", username);
+                return CompletableFuture.completedFuture(Collections.<MinecraftProfileTexture.Type, MinecraftProfileTexture>emptyMap());
+            }
+            CompletableFuture<Map<MinecraftProfileTexture.Type, MinecraftProfileTexture>> textures = new CompletableFuture<>();
+            try {
+                textures.complete(service.getTextures(found));
+            } catch (Throwable t) {
+                textures.completeExceptionally(t);
+            }
+            return textures;
+        }, TextureFetcher.get()::execute);
+    }
+
+    private static class Entry {
+        final CompletableFuture<Map<MinecraftProfileTexture.Type, MinecraftProfileTexture>> textures = new CompletableFuture<Map<MinecraftProfileTexture.Type, MinecraftProfileTexture>>();
+        final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return textures.isDone() && now - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.minecraft.MinecraftProfileTexture;
+
+/**
+ * Source of player profiles and textures for the legacy skin and cape endpoints.
+ * The default implementation talks to Yggdrasil, a local implementation can be set on {@link ProfileCache}.
+ */
+public interface ProfileService {
+
+    /**
+     * @param username Player name
+     * @return Profile of the player, or null if there is no such player
+     */
+    GameProfile findProfile(String username) throws Exception;
+
+    /**
+     * Looks up a profile without blocking the caller, so lookups from several threads can be combined.
+     * The default implementation calls {@link #findProfile(String)} directly.
+     *
+     * @param username Player name
+     * @return Future of the profile of the player, completed with null if there is no such player
+     */
+    default CompletableFuture<GameProfile> findProfileAsync(String username) {
+        CompletableFuture<GameProfile> profile = new CompletableFuture<>();
+        try {
+            profile.complete(findProfile(username));
+        } catch (Throwable t) {
+            profile.completeExceptionally(t);
+        }
+        return profile;
+    }
+
+    /**
+     * @param profile Profile returned by {@link #findProfile(String)}
+     * @return Textures of the player, never null
+     */
+    Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> getTextures(GameProfile profile) throws Exception;
+}
@@ -0,0 +1,17 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+
+/**
+ * Emulates a legacy HTTP endpoint, see {@link LegacyProtocolURLStreamHandler#registerRoute}.
+ */
+public interface RouteHandler {
+
+    /**
+     * @param url URL matching the route
+     * @return Connection serving the URL
+     */
+    URLConnection openConnection(URL url) throws IOException;
+}
@@ -0,0 +1,133 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.minecraft.launchwrapper.Launch;
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Converted legacy skins, stored under {@code skin_cache} in the game directory.
+ * <p>
+ * Texture URLs are content addressed, so an entry never goes stale. Entries are evicted least recently used
+ * first once the cache exceeds {@code legacy.skinCacheSize} bytes, the order survives relaunches through
+ * the file modification times.
+ */
+public class SkinDiskCache {
+    private static final long MAX_SIZE = Long.parseLong(System.getProperty("legacy.skinCacheSize", String.valueOf(16 * 1024 * 1024)));
+    private static SkinDiskCache instance;
+
+    private final File directory;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(64, 0.75f, true);
+    private long size;
+
+    private SkinDiskCache(File directory) {
+        this.directory = directory;
+
+        // Oldest first, so the access order of the map matches the file times
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".png"));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                entries.put(file.getName(), file.length());
+                size += file.length();
+            }
+        }
+    }
+
+    /**
+     * @return The skin cache, or null if the game directory is not known yet
+     */
+    public static synchronized SkinDiskCache get() {
+        if (instance == null && Launch.minecraftHome != null) {
+            File directory = new File(Launch.minecraftHome, "skin_cache");
+            if (directory.isDirectory() || directory.mkdirs()) {
+                instance = new SkinDiskCache(directory);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param textureUrl URL of the modern skin
+     * @param slim Whether the skin uses the slim model
+     * @return Converted skin, or null if it is not cached
+     */
+    public byte[] get(String textureUrl, boolean slim) {
+        String name = getFileName(textureUrl, slim);
+        synchronized (this) {
+            if (entries.get(name) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(directory, name);
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            file.setLastModified(System.currentTimeMillis());
+            return bytes;
+        } catch (IOException e) {
+            LogWrapper.fine("Failed to read cached skin {}", name, e);
+            synchronized (this) {
+                Long length = entries.remove(name);
+                if (length != null) {
+                    size -= length;
+                }
+            }
+            return null;
+        }
+    }
+
+    public void put(String textureUrl, boolean slim, byte[] skin) {
+        String name = getFileName(textureUrl, slim);
+        File file = new File(directory, name);
+        try {
+            // Write to a temporary file first, a concurrent reader never sees a partial skin
+            File temp = File.createTempFile(name, ".tmp", directory);
+            Files.write(temp.toPath(), skin);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LogWrapper.fine("Failed to cache skin {}", name, e);
+            return;
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(name, (long) skin.length);
+            size += skin.length - (previous == null ? 0 : previous);
+
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (size > MAX_SIZE && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(name)) {
+                    continue;
+                }
+                new File(directory, eldest.getKey()).delete();
+                size -= eldest.getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String getFileName(String textureUrl, boolean slim) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder name = new StringBuilder(50);
+            for (byte b : digest.digest(textureUrl.getBytes(StandardCharsets.UTF_8))) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return name.append(slim ? "-slim.png" : ".png").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
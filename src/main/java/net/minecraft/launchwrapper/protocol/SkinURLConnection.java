@@ -1,28 +1,45 @@
 package net.minecraft.launchwrapper.protocol;
 
-import java.awt.AlphaComposite;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.Proxy;
 import java.net.URL;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 import javax.imageio.ImageIO;
 
-import com.mojang.authlib.Agent;
-import com.mojang.authlib.GameProfile;
-import com.mojang.authlib.ProfileLookupCallback;
 import com.mojang.authlib.minecraft.MinecraftProfileTexture;
-import com.mojang.authlib.yggdrasil.YggdrasilAuthenticationService;
 
 public class SkinURLConnection extends HttpURLConnection {
+    private final CompletableFuture<byte[]> texture;
+
     public SkinURLConnection(URL url) {
         super(url);
+        String username = getUsername(url);
+
+        // Start fetching right away, connect only waits for the result
+        texture = TextureFetcher.get().fetch("skin:" + username.toLowerCase(Locale.ROOT), getUserSkin(username), skin -> {
+            if (skin == null) {
+                throw new FileNotFoundException("No skin for " + username);
+            }
+            boolean slim = "slim".equals(skin.getMetadata("model"));
+            return getLegacySkin(skin.getUrl(), slim);
+        });
+    }
+
+    static String getUsername(URL url) {
+        String urlString = url.toString();
+        return (urlString.contains("/MinecraftSkins/")
+                ? urlString.substring(urlString.indexOf("/MinecraftSkins/"))
+                .replace("/MinecraftSkins/", "")
+                .replace(".png", "")
+                : urlString.substring(urlString.indexOf("/skin/")))
+                .replace("/skin/", "")
+                .replace(".png", "");
     }
 
     @Override
@@ -38,120 +55,64 @@ public class SkinURLConnection extends HttpURLConnection {
     int responseCode = 200;
 
     @Override
-    public void connect() throws IOException {
-        String url = this.url.toString();
-        String username = (url.contains("/MinecraftSkins/")
-                ? url.substring(url.indexOf("/MinecraftSkins/"))
-                .replace("/MinecraftSkins/", "")
-                .replace(".png", "")
-                : url.substring(url.indexOf("/skin/")))
-                .replace("/skin/", "")
-                .replace(".png", "");
-
+    public synchronized void connect() throws IOException {
+        if (connected) {
+            return;
+        }
         try {
-            MinecraftProfileTexture skin = getUserSkin(username);
-            boolean slim = "slim".equals(skin.getMetadata("model"));
-            inputStream = convertModernSkin(new URL(skin.getUrl()), slim);
+            inputStream = new ByteArrayInputStream(TextureFetcher.await(texture));
         } catch (Exception ex) {
             responseCode = 404;
         }
+        connected = true;
     }
 
-    GameProfile gameProfile = null;
-    YggdrasilAuthenticationService authenticationService = new YggdrasilAuthenticationService(Proxy.NO_PROXY, (String)null);
+    private static CompletableFuture<MinecraftProfileTexture> getUserSkin(String username) {
+        return ProfileCache.get().getTextureAsync(username, MinecraftProfileTexture.Type.SKIN);
+    }
 
-    private MinecraftProfileTexture getUserSkin(String username) {
-        authenticationService.createProfileRepository().findProfilesByNames(new String[] { username }, Agent.MINECRAFT, new ProfileLookupCallback() {
-            public void onProfileLookupSucceeded(GameProfile paramGameProfile) {
-                gameProfile = paramGameProfile;
+    private static byte[] getLegacySkin(String skinUrl, boolean slim) throws IOException {
+        SkinDiskCache cache = SkinDiskCache.get();
+        byte[] legacySkin = cache == null ? null : cache.get(skinUrl, slim);
+        if (legacySkin == null) {
+            legacySkin = convertModernSkinToBytes(new URL(skinUrl), slim);
+            if (cache != null) {
+                cache.put(skinUrl, slim, legacySkin);
             }
-            public void onProfileLookupFailed(GameProfile paramGameProfile, Exception paramException) {
-            }
-        });
-
-        if (gameProfile == null)
-            return null;
-
-        gameProfile = authenticationService.createMinecraftSessionService().fillProfileProperties(gameProfile, true);
-
-        Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> textures = authenticationService.createMinecraftSessionService().getTextures(gameProfile, true);
-
-        if (textures.containsKey(MinecraftProfileTexture.Type.SKIN))
-            return textures.get(MinecraftProfileTexture.Type.SKIN);
-
-        return null;
+        }
+        return legacySkin;
     }
 
     public static InputStream convertModernSkin(URL skinUrl, boolean slim) throws IOException {
-        InputStream inputStream = skinUrl.openStream();
-        BufferedImage skin = ImageIO.read(inputStream);
-        boolean tall = skin.getHeight() > 32;
-        BufferedImage movePart = null;
-        Graphics2D graphics = skin.createGraphics();
-        AlphaComposite alpha = AlphaComposite.getInstance(AlphaComposite.SRC_OVER);
-        graphics.setComposite(alpha);
-
-        if (slim) {
-            // Convert alex to steve.
-
-            // Stretch right arm.
-            movePart = skin.getSubimage(45, 16, 9, 16);
-            graphics.drawImage(movePart, 46, 16, null);
-            movePart = skin.getSubimage(49, 16, 2, 4);
-            graphics.drawImage(movePart, 50, 16, null);
-            movePart = skin.getSubimage(53, 20, 2, 12);
-            graphics.drawImage(movePart, 54, 20, null);
-
-            if (tall) {
-                // Stretch right sleeve.
-                movePart = skin.getSubimage(45, 32, 9, 16);
-                graphics.drawImage(movePart, 46, 32, null);
-                movePart = skin.getSubimage(49, 32, 2, 4);
-                graphics.drawImage(movePart, 50, 32, null);
-                movePart = skin.getSubimage(53, 36, 2, 12);
-                graphics.drawImage(movePart, 54, 36, null);
-
-                // Stretch left arm.
-                movePart = skin.getSubimage(37, 48, 9, 16);
-                graphics.drawImage(movePart, 38, 48, null);
-                movePart = skin.getSubimage(41, 48, 2, 4);
-                graphics.drawImage(movePart, 42, 32, null);
-                movePart = skin.getSubimage(45, 52, 2, 12);
-                graphics.drawImage(movePart, 46, 36, null);
-
-                // Stretch left sleeve.
-                movePart = skin.getSubimage(53, 48, 9, 16);
-                graphics.drawImage(movePart, 54, 48, null);
-                movePart = skin.getSubimage(57, 48, 2, 4);
-                graphics.drawImage(movePart, 58, 32, null);
-                movePart = skin.getSubimage(61, 52, 2, 12);
-                graphics.drawImage(movePart, 62, 36, null);
-            }
-        }
+        return new ByteArrayInputStream(convertModernSkinToBytes(skinUrl, slim));
+    }
 
-        if (tall) {
-            // Flatten second layers.
-            movePart = skin.getSubimage(0, 32, 56, 16);
-            graphics.drawImage(movePart, 0, 16, null);
-        }
+    public static byte[] convertModernSkinToBytes(URL skinUrl, boolean slim) throws IOException {
+        return convertModernSkinToBytes(TextureFetcher.download(skinUrl), slim);
+    }
 
-        graphics.dispose();
+    public static byte[] convertModernSkinToBytes(byte[] modernSkin, boolean slim) throws IOException {
+        BufferedImage skin = ImageIO.read(new ByteArrayInputStream(modernSkin));
+        if (skin == null) {
+            throw new IOException("Unsupported skin image");
+        }
 
-        // Crop
-        BufferedImage croppedSkin = skin.getSubimage(0, 0, 64, 32);
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        ImageIO.write(croppedSkin, "png", os);
-        byte[] bytes = os.toByteArray();
-        return new ByteArrayInputStream(bytes);
+        int width = skin.getWidth();
+        int height = skin.getHeight();
+        int[] pixels = skin.getRGB(0, 0, width, height, null, 0, width);
+        return PngEncoder.encode(LegacySkinConverter.convert(pixels, width, height, slim),
+                LegacySkinConverter.LEGACY_WIDTH, LegacySkinConverter.LEGACY_HEIGHT);
     }
 
     @Override
     public InputStream getInputStream() throws IOException {
+        connect();
         return inputStream;
     }
 
     @Override
-    public int getResponseCode() {
+    public int getResponseCode() throws IOException {
+        connect();
         return responseCode;
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches legacy textures on a small bounded pool, so clients opening one connection per player don't start
+ * a lookup chain on each of their threads. Fetches of the same texture that overlap share one task.
+ * <p>
+ * The pool size is set by {@code legacy.textureThreads}, waiting for a texture times out after
+ * {@code legacy.textureTimeout} seconds.
+ */
+public class TextureFetcher {
+    private static final int THREADS = Integer.getInteger("legacy.textureThreads", 4);
+    private static final int QUEUE_SIZE = 512;
+    private static final long TIMEOUT = Long.getLong("legacy.textureTimeout", 10);
+    private static final TextureFetcher INSTANCE = new TextureFetcher();
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private TextureFetcher() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "LaunchWrapper-Texture-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static TextureFetcher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts fetching a texture, or joins the fetch already running for the same key.
+     *
+     * @param key Identifies the texture, e.g. type and username
+     * @param loader Loads the texture bytes
+     * @return Future of the texture bytes
+     */
+    public CompletableFuture<byte[]> fetch(String key, Callable<byte[]> loader) {
+        return fetch(key, CompletableFuture.completedFuture(null), ignored -> loader.call());
+    }
+
+    /**
+     * Starts fetching a texture once {@code dependency} completes, or joins the fetch already running for the
+     * same key. Nothing occupies a pool thread while the dependency is pending, a failed dependency fails the
+     * texture.
+     *
+     * @param key Identifies the texture, e.g. type and username
+     * @param dependency Value the texture is loaded from, e.g. the textures of a profile
+     * @param loader Loads the texture bytes from the dependency
+     * @return Future of the texture bytes
+     */
+    public <T> CompletableFuture<byte[]> fetch(String key, CompletableFuture<T> dependency, Loader<? super T> loader) {
+        CompletableFuture<byte[]> future = inFlight.get(key);
+        if (future != null) {
+            return future;
+        }
+        CompletableFuture<byte[]> newFuture = new CompletableFuture<>();
+        future = inFlight.putIfAbsent(key, newFuture);
+        if (future != null) {
+            return future;
+        }
+
+        dependency.whenComplete((value, failure) -> {
+            if (failure != null) {
+                // Finished textures are cached by the profile and skin caches, only dedupe while running
+                inFlight.remove(key, newFuture);
+                newFuture.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        newFuture.complete(loader.load(value));
+                    } catch (Throwable t) {
+                        newFuture.completeExceptionally(t);
+                    } finally {
+                        inFlight.remove(key, newFuture);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, newFuture);
+                newFuture.completeExceptionally(e);
+            }
+        });
+        return newFuture;
+    }
+
+    /**
+     * Runs a task on the texture pool, or on the calling thread if the pool is saturated.
+     */
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Waits for a texture started by {@link #fetch(String, Callable)}.
+     *
+     * @throws IOException If the fetch failed or timed out
+     */
+    public static byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get(TIMEOUT, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out fetching texture", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads a texture from its URL, with the fetch timeout applied to connecting and reading.
+     */
+    public static byte[] download(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT));
+        connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT));
+        try (InputStream inputStream = connection.getInputStream()) {
+            return readAll(inputStream);
+        }
+    }
+
+    /**
+     * Loads texture bytes from a resolved value.
+     */
+    public interface Loader<T> {
+        byte[] load(T value) throws Exception;
+    }
+
+    static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
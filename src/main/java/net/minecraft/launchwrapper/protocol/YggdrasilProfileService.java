@@ -0,0 +1,36 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.net.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.minecraft.MinecraftProfileTexture;
+import com.mojang.authlib.minecraft.MinecraftSessionService;
+import com.mojang.authlib.yggdrasil.YggdrasilAuthenticationService;
+
+public class YggdrasilProfileService implements ProfileService {
+    private final YggdrasilAuthenticationService authenticationService = new YggdrasilAuthenticationService(Proxy.NO_PROXY, (String)null);
+    private final MinecraftSessionService sessionService = authenticationService.createMinecraftSessionService();
+    private final BatchingProfileResolver profileResolver = new BatchingProfileResolver(authenticationService.createProfileRepository());
+
+    @Override
+    public GameProfile findProfile(String username) throws Exception {
+        try {
+            return profileResolver.resolve(username).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<GameProfile> findProfileAsync(String username) {
+        return profileResolver.resolve(username);
+    }
+
+    @Override
+    public Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> getTextures(GameProfile profile) {
+        return sessionService.getTextures(sessionService.fillProfileProperties(profile, true), true);
+    }
+}
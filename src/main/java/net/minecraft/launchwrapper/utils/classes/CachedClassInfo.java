@@ -9,5 +9,6 @@ public class CachedClassInfo {
     public ConcurrentMap<String, String> transformedClassNames = new ConcurrentHashMap<>();
     public ConcurrentMap<String, String> untransformedClassNames = new ConcurrentHashMap<>();
     public ConcurrentMap<Long, Long> transformedClassHashes = new ConcurrentHashMap<>();
+    public ConcurrentMap<String, Long> transformedResourceHashes = new ConcurrentHashMap<>();
     
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package net.minecraft.launchwrapper.utils.classes;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URLConnection;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Builds the {@link CodeSource}s of loaded classes. Whether a jar is signed is checked once per jar, so
+ * classes from unsigned jars never touch the manifest or the signature machinery.
+ * <p>
+ * The location stays the URL of the class itself ({@code jar:file:...!/pkg/C.class}), mods inspect it to
+ * find the file they were loaded from.
+ */
+public class CodeSourceCache {
+    private final Map<String, Boolean> signedJars = new ConcurrentHashMap<>();
+
+    /**
+     * @param connection   Connection to the class file, may be {@code null}
+     * @param fileName     Class file name inside the jar
+     * @param checkSigners Whether signers should be looked up for this class
+     * @return Code source for the class, or {@code null} if the connection is {@code null}
+     */
+    public CodeSource getCodeSource(URLConnection connection, String fileName, boolean checkSigners) throws IOException {
+        if (connection == null) {
+            return null;
+        }
+        CodeSigner[] signers = null;
+        if (checkSigners && connection instanceof JarURLConnection) {
+            final JarURLConnection jarConnection = (JarURLConnection) connection;
+            if (isSigned(jarConnection)) {
+                final JarEntry entry = jarConnection.getJarFile().getJarEntry(fileName);
+                signers = entry == null ? null : entry.getCodeSigners();
+            }
+        }
+        return new CodeSource(connection.getURL(), signers);
+    }
+
+    private boolean isSigned(JarURLConnection connection) throws IOException {
+        final String jarUrl = connection.getJarFileURL().toString();
+        Boolean signed = signedJars.get(jarUrl);
+        if (signed == null) {
+            signed = hasSignatureFiles(connection.getJarFile());
+            signedJars.put(jarUrl, signed);
+        }
+        return signed;
+    }
+
+    private static boolean hasSignatureFiles(JarFile jarFile) {
+        if (jarFile == null) {
+            return false;
+        }
+        for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+            String name = entries.nextElement().getName().toUpperCase(Locale.ENGLISH);
+            if (name.startsWith("META-INF/") && name.endsWith(".SF")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
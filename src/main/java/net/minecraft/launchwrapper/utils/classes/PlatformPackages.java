@@ -0,0 +1,51 @@
+package net.minecraft.launchwrapper.utils.classes;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of packages provided by the bootstrap and platform class loaders. On Java 9+ this is read once from
+ * the boot module layer; on Java 8 only {@code java.*} is known to be platform-only, since {@code javax.*}
+ * packages may also come from libraries on the classpath.
+ */
+public class PlatformPackages {
+    private static final Set<String> PACKAGES = collectPackages();
+
+    public static boolean isPlatformClass(String className) {
+        if (className.startsWith("java.")) {
+            return true;
+        }
+        int lastDot = className.lastIndexOf('.');
+        return lastDot > 0 && PACKAGES.contains(className.substring(0, lastDot));
+    }
+
+    public static Set<String> getPackages() {
+        return PACKAGES;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> collectPackages() {
+        try {
+            Class<?> layerClass = Class.forName("java.lang.ModuleLayer");
+            Class<?> moduleClass = Class.forName("java.lang.Module");
+            Method getPackages = moduleClass.getMethod("getPackages");
+            Method getClassLoader = moduleClass.getMethod("getClassLoader");
+            ClassLoader platformLoader = (ClassLoader) ClassLoader.class.getMethod("getPlatformClassLoader").invoke(null);
+
+            Object bootLayer = layerClass.getMethod("boot").invoke(null);
+            Set<String> packages = new HashSet<>(2048);
+            for (Object module : (Set<?>) layerClass.getMethod("modules").invoke(bootLayer)) {
+                ClassLoader loader = (ClassLoader) getClassLoader.invoke(module);
+                if (loader == null || loader == platformLoader) {
+                    packages.addAll((Set<String>) getPackages.invoke(module));
+                }
+            }
+            return Collections.unmodifiableSet(packages);
+        } catch (ReflectiveOperationException e) {
+            // Java 8, no module system
+            return Collections.emptySet();
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package net.minecraft.launchwrapper.utils.classpath;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
+
+import net.minecraft.launchwrapper.LogWrapper;
 
 public class Classpath {
     private static final List<ClasspathResolver> resolvers = new ArrayList<>();
 
     public static URL[] getClasspath() {
+        return getClasspath(null);
+    }
+
+    /**
+     * Resolves the classpath, trying the resolver which worked last time for this JVM first.
+     *
+     * @param resolverCache File remembering the working resolver per JVM, may be {@code null}
+     */
+    public static URL[] getClasspath(File resolverCache) {
         ClassLoader classLoader = Classpath.class.getClassLoader();
         if (resolvers.isEmpty()) {
             // Backup time
@@ -17,9 +34,32 @@ public class Classpath {
             addResolver(new HackyClasspathResolver());
         }
 
-        for (ClasspathResolver resolver : resolvers) {
+        String jvmKey = System.getProperty("java.home") + "|" + System.getProperty("java.vm.name") + "|" + System.getProperty("java.vm.version");
+        Properties known = loadResolverCache(resolverCache);
+        String knownResolver = known.getProperty(jvmKey);
+
+        List<ClasspathResolver> ordered = new ArrayList<>(resolvers);
+        if (knownResolver != null) {
+            for (ClasspathResolver resolver : resolvers) {
+                if (resolver.getClass().getName().equals(knownResolver)) {
+                    ordered.remove(resolver);
+                    ordered.add(0, resolver);
+                    break;
+                }
+            }
+        }
+
+        for (ClasspathResolver resolver : ordered) {
             try {
-                return resolver.resolve(classLoader);
+                URL[] urls = new NormalizingClasspathResolver(resolver).resolve(classLoader);
+                if (urls == null) {
+                    continue;
+                }
+                if (resolverCache != null && !resolver.getClass().getName().equals(knownResolver)) {
+                    known.setProperty(jvmKey, resolver.getClass().getName());
+                    saveResolverCache(resolverCache, known);
+                }
+                return urls;
             } catch (Throwable ignored) {
 
             }
@@ -28,6 +68,26 @@ public class Classpath {
         throw new IllegalStateException("Could not fetch the classpath (All the resolvers failed)");
     }
 
+    private static Properties loadResolverCache(File file) {
+        Properties properties = new Properties();
+        if (file != null && file.isFile()) {
+            try (InputStream stream = Files.newInputStream(file.toPath())) {
+                properties.load(stream);
+            } catch (IOException e) {
+                LogWrapper.warning("Failed to read {}", file, e);
+            }
+        }
+        return properties;
+    }
+
+    private static void saveResolverCache(File file, Properties properties) {
+        try (OutputStream stream = Files.newOutputStream(file.toPath())) {
+            properties.store(stream, "Classpath resolver per JVM");
+        } catch (IOException e) {
+            LogWrapper.warning("Failed to save {}", file, e);
+        }
+    }
+
     public static void addResolver(ClasspathResolver resolver) {
         resolvers.add(resolver);
     }
@@ -35,4 +95,4 @@ public class Classpath {
     public static List<ClasspathResolver> getResolvers() {
         return resolvers;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package net.minecraft.launchwrapper.utils.classpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Counts how many classes were loaded from each classpath entry and persists the counts, so the next launch
+ * can search hot jars first. Only entries which don't share any class or resource name with another entry
+ * are reordered, which keeps the lookup result of every name the same. That check is redone whenever the
+ * set of classpath entries changes, and skipped for classpaths with more than {@code legacy.classpathScanLimit}
+ * entries, which are then left in their order.
+ */
+public class ClasspathHits {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    // Listing every entry is only done for classpaths up to this size, larger ones are never reordered
+    private static final int SCAN_LIMIT = Integer.getInteger("legacy.classpathScanLimit", 256);
+
+    private final Map<String, AtomicLong> hits = new ConcurrentHashMap<>();
+    private final Data previous;
+
+    private ClasspathHits(Data previous) {
+        this.previous = previous;
+    }
+
+    public static ClasspathHits load(File file) {
+        Data data = null;
+        if (file.isFile()) {
+            try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+                data = GSON.fromJson(reader, Data.class);
+            } catch (Throwable t) {
+                LogWrapper.warning("Failed to read {}", file, t);
+            }
+        }
+        return new ClasspathHits(data);
+    }
+
+    /**
+     * Moves the entries with recorded hits to the front, if the classpath still has the same entries as
+     * when the hits were recorded.
+     */
+    public URL[] reorder(URL[] classpath) {
+        if (previous == null || previous.hits == null || previous.shadowing == null
+                || !getSignature(toStrings(classpath)).equals(previous.signature)) {
+            return classpath;
+        }
+        Map<String, Long> movable = new HashMap<>(previous.hits);
+        movable.keySet().removeAll(previous.shadowing);
+        if (movable.isEmpty()) {
+            return classpath;
+        }
+        LogWrapper.fine("Moving {} hot classpath entries to the front", movable.size());
+        List<URL> ordered = new ArrayList<>(Arrays.asList(classpath));
+        // Stable, so entries without hits keep the classpath order
+        Collections.sort(ordered, (a, b) -> Long.compare(getHits(movable, b), getHits(movable, a)));
+        return ordered.toArray(new URL[0]);
+    }
+
+    private static long getHits(Map<String, Long> hits, URL url) {
+        Long count = hits.get(url.toString());
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Records a class loaded from the given resource URL.
+     */
+    public void recordHit(URL resource, String resourcePath) {
+        String source = getSource(resource.toString(), resourcePath);
+        if (source == null) {
+            return;
+        }
+        AtomicLong counter = hits.get(source);
+        if (counter == null) {
+            counter = new AtomicLong();
+            AtomicLong existing = hits.putIfAbsent(source, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    private static String getSource(String resource, String resourcePath) {
+        if (resource.startsWith("jar:")) {
+            int separator = resource.indexOf("!/");
+            return separator < 0 ? null : resource.substring(4, separator);
+        }
+        if (resource.endsWith(resourcePath)) {
+            return resource.substring(0, resource.length() - resourcePath.length());
+        }
+        return null;
+    }
+
+    /**
+     * Saves this session's hits. The shadowing check is only redone if the classpath entries changed.
+     * Sources added later through {@code addURL} always stay behind the classpath, so only the classpath
+     * the loader was created with needs to be checked.
+     */
+    public void save(File file, URL[] classpath) throws IOException {
+        List<String> entries = toStrings(classpath);
+        Data data = new Data();
+        data.signature = getSignature(entries);
+        data.hits = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : hits.entrySet()) {
+            data.hits.put(entry.getKey(), entry.getValue().get());
+        }
+        if (previous != null && data.signature.equals(previous.signature) && previous.shadowing != null) {
+            data.shadowing = previous.shadowing;
+        } else if (classpath.length > SCAN_LIMIT) {
+            LogWrapper.fine("Not checking {} classpath entries for shadowing, the limit is {}", classpath.length, SCAN_LIMIT);
+            data.shadowing = new TreeSet<>(entries);
+        } else {
+            data.shadowing = findShadowingEntries(classpath);
+        }
+        Files.write(file.toPath(), GSON.toJson(data).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Entries sharing at least one class or resource name with another entry
+     */
+    private static Set<String> findShadowingEntries(URL[] sources) {
+        Map<String, String> owners = new HashMap<>(1 << 16);
+        Set<String> shadowing = new TreeSet<>();
+        for (URL source : sources) {
+            String sourceName = source.toString();
+            Collection<String> names;
+            try {
+                names = listNames(source);
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                // Can't tell what it contains, so never move it
+                shadowing.add(sourceName);
+                continue;
+            }
+            for (String name : names) {
+                String owner = owners.putIfAbsent(name, sourceName);
+                if (owner != null && !owner.equals(sourceName)) {
+                    shadowing.add(owner);
+                    shadowing.add(sourceName);
+                }
+            }
+        }
+        return shadowing;
+    }
+
+    private static Collection<String> listNames(URL source) throws IOException, URISyntaxException {
+        if (!"file".equals(source.getProtocol())) {
+            throw new IOException("Unsupported classpath entry " + source);
+        }
+        File file = new File(source.toURI());
+        Set<String> names = new HashSet<>();
+        if (file.isDirectory()) {
+            Path root = file.toPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.filter(Files::isRegularFile).forEach(path -> addName(names, root.relativize(path).toString().replace(File.separatorChar, '/')));
+            }
+        } else if (file.isFile()) {
+            try (JarFile jarFile = new JarFile(file, false)) {
+                for (Enumeration<JarEntry> it = jarFile.entries(); it.hasMoreElements(); ) {
+                    JarEntry entry = it.nextElement();
+                    if (!entry.isDirectory()) {
+                        addName(names, entry.getName());
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void addName(Set<String> names, String name) {
+        // Every jar has these, nothing looks them up through the class loader in a way where order matters
+        if (name.equals("META-INF/MANIFEST.MF") || name.equals("META-INF/INDEX.LIST") || name.endsWith("module-info.class")) {
+            return;
+        }
+        if (name.startsWith("META-INF/") && (name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA") || name.endsWith(".EC"))) {
+            return;
+        }
+        names.add(name);
+    }
+
+    private static List<String> toStrings(URL[] urls) {
+        List<String> list = new ArrayList<>(urls.length);
+        for (URL url : urls) {
+            list.add(url.toString());
+        }
+        return list;
+    }
+
+    /**
+     * Order independent signature of the classpath entries, including their size and modification time.
+     */
+    private static String getSignature(List<String> entries) {
+        List<String> sorted = new ArrayList<>(new TreeSet<>(entries));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (String entry : sorted) {
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+                try {
+                    File file = new File(new URL(entry).toURI());
+                    digest.update((":" + file.length() + ":" + file.lastModified()).getBytes(StandardCharsets.UTF_8));
+                } catch (IOException | URISyntaxException | IllegalArgumentException ignored) {
+                    // Not a file, the name alone has to do
+                }
+                digest.update((byte) 0);
+            }
+            StringBuilder signature = new StringBuilder(40);
+            for (byte b : digest.digest()) {
+                signature.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return signature.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Data {
+        private String signature;
+        private Map<String, Long> hits = Collections.emptyMap();
+        private Set<String> shadowing;
+    }
+}
@@ -0,0 +1,166 @@
+package net.minecraft.launchwrapper.utils.classpath;
+
+import java.io.File;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Opens classpath jars in the background, in parallel, and lists their entries. Once every jar is open
+ * the entry names are merged, in classpath order, into a single map from entry name to the jar that serves
+ * it, so a lookup is one map access instead of a probe of every jar. The jars are opened through {@link JarURLConnection} with caching
+ * enabled, so streams opened from the returned URLs reuse the same {@link JarFile}.
+ * <p>
+ * Until every source has been opened, and for anything behind a source which isn't a jar, lookups fall
+ * back to the regular {@link java.net.URLClassLoader} search.
+ */
+public class JarIndex {
+    private static final String SAFE_PATH_CHARS = "/-_.!~*'()@:$&+,;=";
+
+    private final ThreadPoolExecutor executor;
+    private final List<Future<Source>> sources = new CopyOnWriteArrayList<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final Map<String, Source> entries = new ConcurrentHashMap<>();
+    /** Number of sources merged into {@link #entries} */
+    private volatile int merged;
+    /** A source which isn't a jar has been reached, names missing from the map may be behind it */
+    private volatile boolean incomplete;
+
+    public JarIndex(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "LaunchWrapper-JarIndex-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void add(URL url) {
+        sources.add(executor.submit(() -> {
+            try {
+                return open(url);
+            } finally {
+                opened.incrementAndGet();
+            }
+        }));
+    }
+
+    /**
+     * @param fallback Regular lookup, used while the index is incomplete or can't answer authoritatively
+     */
+    public URL findResource(String name, Function<String, URL> fallback) {
+        if (opened.get() < sources.size()) {
+            return fallback.apply(name);
+        }
+        try {
+            if (merged < sources.size()) {
+                merge();
+            }
+            Source source = entries.get(name);
+            if (source == null && !name.endsWith("/")) {
+                // JarFile.getEntry also finds directories without the trailing slash
+                source = entries.get(name + "/");
+            }
+            if (source != null) {
+                return new URL(source.base, encodePath(name));
+            }
+            // Can't see past a source which isn't a jar, let the regular search handle the order from there
+            return incomplete ? fallback.apply(name) : null;
+        } catch (InterruptedException | ExecutionException | MalformedURLException e) {
+            return fallback.apply(name);
+        }
+    }
+
+    /**
+     * Adds the entries of newly opened sources to the map, earlier sources win.
+     */
+    private synchronized void merge() throws InterruptedException, ExecutionException {
+        int count = sources.size();
+        for (int i = merged; i < count; i++) {
+            Source source = sources.get(i).get();
+            if (incomplete) {
+                continue;
+            }
+            if (source.base == null) {
+                incomplete = true;
+                continue;
+            }
+            for (String entryName : source.entryNames) {
+                entries.putIfAbsent(entryName, source);
+            }
+            source.entryNames = null;
+        }
+        merged = count;
+    }
+
+    private static Source open(URL url) {
+        try {
+            if ("file".equals(url.getProtocol()) && new File(url.toURI()).isFile()) {
+                URL base = new URL("jar:" + url + "!/");
+                URLConnection connection = base.openConnection();
+                connection.setUseCaches(true);
+                JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+                List<String> entryNames = new ArrayList<>(jarFile.size());
+                for (Enumeration<? extends ZipEntry> it = jarFile.entries(); it.hasMoreElements(); ) {
+                    entryNames.add(it.nextElement().getName());
+                }
+                return new Source(base, entryNames);
+            }
+        } catch (Exception e) {
+            LogWrapper.fine("Could not index classpath entry {}", url, e);
+        }
+        return new Source(null, null);
+    }
+
+    private static String encodePath(String path) {
+        StringBuilder encoded = null;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || SAFE_PATH_CHARS.indexOf(c) >= 0) {
+                if (encoded != null) {
+                    encoded.append(c);
+                }
+                continue;
+            }
+            if (encoded == null) {
+                encoded = new StringBuilder(path.length() + 16).append(path, 0, i);
+            }
+            int end = Character.isHighSurrogate(c) && i + 1 < path.length() ? i + 2 : i + 1;
+            for (byte b : path.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16))).append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+            i = end - 1;
+        }
+        return encoded == null ? path : encoded.toString();
+    }
+
+    private static class Source {
+        private final URL base;
+        private List<String> entryNames;
+
+        private Source(URL base, List<String> entryNames) {
+            this.base = base;
+            this.entryNames = entryNames;
+        }
+    }
+}
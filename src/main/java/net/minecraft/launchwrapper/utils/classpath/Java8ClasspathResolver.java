@@ -10,6 +10,7 @@ public class Java8ClasspathResolver implements ClasspathResolver {
             return ((URLClassLoader) loader).getURLs();
         }
 
-        throw new Exception();
+        // Not applicable, cheaper than throwing
+        return null;
     }
 }
\ No newline at end of file
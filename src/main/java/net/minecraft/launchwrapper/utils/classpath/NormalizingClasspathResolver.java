@@ -0,0 +1,49 @@
+package net.minecraft.launchwrapper.utils.classpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Wraps another resolver and cleans up its result: {@code file:} entries are canonicalized, duplicates and
+ * entries which don't exist are dropped. The order is kept, see {@link ClasspathHits} for moving hot jars
+ * to the front.
+ */
+public class NormalizingClasspathResolver implements ClasspathResolver {
+    private final ClasspathResolver delegate;
+
+    public NormalizingClasspathResolver(ClasspathResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public URL[] resolve(ClassLoader loader) throws Throwable {
+        URL[] urls = delegate.resolve(loader);
+        return urls == null ? null : normalize(urls);
+    }
+
+    public static URL[] normalize(URL[] urls) {
+        Set<URL> normalized = new LinkedHashSet<>(urls.length);
+        for (URL url : urls) {
+            if (url == null) {
+                continue;
+            }
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    File file = new File(url.toURI()).getCanonicalFile();
+                    if (!file.exists()) {
+                        continue;
+                    }
+                    url = file.toURI().toURL();
+                } catch (URISyntaxException | IOException | IllegalArgumentException ignored) {
+                    // Keep the URL as it is
+                }
+            }
+            normalized.add(url);
+        }
+        return normalized.toArray(new URL[0]);
+    }
+}
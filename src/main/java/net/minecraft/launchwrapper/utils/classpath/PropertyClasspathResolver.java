@@ -11,7 +11,7 @@ public class PropertyClasspathResolver implements ClasspathResolver {
         String[] elements = cp.split(File.pathSeparator);
 
         if (elements.length == 0) {
-            throw new Exception();
+            return null;
         }
 
         URL[] urls = new URL[elements.length];
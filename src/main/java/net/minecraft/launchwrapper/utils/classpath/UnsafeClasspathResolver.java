@@ -35,6 +35,7 @@ public class UnsafeClasspathResolver implements ClasspathResolver {
             return path.toArray(new URL[0]);
         }
 
-        throw new Exception();
+        // Not applicable, cheaper than throwing
+        return null;
     }
 }
\ No newline at end of file
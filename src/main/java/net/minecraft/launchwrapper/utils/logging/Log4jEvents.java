@@ -0,0 +1,45 @@
+package net.minecraft.launchwrapper.utils.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * Hands messages logged on another thread to log4j-core as complete events, so the thread name and time in
+ * the layout are the ones of the original call rather than those of the thread passing them on.
+ * <p>
+ * log4j-core is provided by the game, only the API is a dependency. Where core isn't available or its event
+ * builder is missing (versions before 2.6), {@link #log} returns {@code false} and the caller logs through
+ * the API instead.
+ */
+public class Log4jEvents {
+    private static volatile boolean available = true;
+
+    /**
+     * @return Whether the event was logged
+     */
+    public static boolean log(Logger logger, String fqcn, Level level, Message message, String threadName, long timeMillis) {
+        if (!available) {
+            return false;
+        }
+        try {
+            if (!(logger instanceof org.apache.logging.log4j.core.Logger)) {
+                return false;
+            }
+            ((org.apache.logging.log4j.core.Logger) logger).get().log(Log4jLogEvent.newBuilder()
+                    .setLoggerName(logger.getName())
+                    .setLoggerFqcn(fqcn)
+                    .setLevel(level)
+                    .setMessage(message)
+                    .setThrown(message.getThrowable())
+                    .setThreadName(threadName)
+                    .setTimeMillis(timeMillis)
+                    .build());
+            return true;
+        } catch (LinkageError e) {
+            available = false;
+            return false;
+        }
+    }
+}
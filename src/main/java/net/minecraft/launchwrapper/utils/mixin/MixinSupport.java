@@ -1,12 +1,25 @@
 package net.minecraft.launchwrapper.utils.mixin;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Adler32;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.spongepowered.asm.mixin.MixinEnvironment;
 import org.spongepowered.asm.mixin.Mixins;
+import org.spongepowered.asm.mixin.extensibility.IMixinConfig;
+import org.spongepowered.asm.mixin.transformer.Config;
 import org.spongepowered.asm.mixin.transformer.MixinTransformer;
 import org.spongepowered.asm.mixin.transformer.Proxy;
 import org.spongepowered.asm.util.ReEntranceLock;
@@ -14,33 +27,106 @@ import org.spongepowered.asm.util.ReEntranceLock;
 import net.minecraft.launchwrapper.IClassTransformer;
 import net.minecraft.launchwrapper.Launch;
 
+/**
+ * Lets Mixin select pending configs when classes are served from the class cache and its transformer never
+ * sees them. Mixin state is only re-checked after {@link #invalidate()}, which is called when transformers
+ * are registered, by the mixin tweaker, and by {@link #detectChanges()} once Mixin's environment or pending
+ * configs actually changed. A cached class load normally costs a single volatile read.
+ * <p>
+ * Also fingerprints the selected mixin configs per target class, so the class cache only misses for classes
+ * whose mixins changed.
+ */
 public class MixinSupport {
     private static final Logger LOGGER = LogManager.getLogger("LaunchWrapper");
+    private static volatile boolean stale = true;
+    private static final AtomicBoolean checking = new AtomicBoolean();
+    private static volatile MixinEnvironment lastEnvironment = null;
+    private static volatile int lastUnvisitedCount = -1;
+    private static volatile Map<String, Long> targetFingerprints = Collections.emptyMap();
+    private static Set<String> fingerprintedConfigs = Collections.emptySet();
+
     private static MixinTransformer mixinTransformer = null;
-    private static MixinEnvironment lastEnvironment = null;
+    private static MethodHandle lockGetter;
+    private static MethodHandle checkSelect;
+
+    /**
+     * Makes the next cached class load re-check Mixin's configs.
+     */
+    public static void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Invalidates if Mixin's environment or the number of pending configs changed since the last check. Called
+     * after a class went through the transformers and once the tweakers are done, as Mixin changes phase there.
+     */
+    public static void detectChanges() {
+        if (MixinEnvironment.getCurrentEnvironment() != lastEnvironment || Mixins.getUnvisitedCount() != lastUnvisitedCount) {
+            stale = true;
+        }
+    }
 
-    public static void onCachedClassLoad() throws ReflectiveOperationException {
+    /**
+     * Returns the fingerprint of the mixin configs targeting a class, to be mixed into its class cache key.
+     * Only reads the fingerprints of the last check, {@link #onCachedClassLoad()} has to succeed first.
+     *
+     * @param transformedName Transformed class name
+     * @return Fingerprint of the configs targeting the class, or 0 if no config targets it
+     */
+    public static long getFingerprint(String transformedName) {
+        return targetFingerprints.getOrDefault(transformedName, 0L);
+    }
+
+    /**
+     * Brings Mixin up to date before a class is served from the cache. No lock is held while Mixin selects
+     * configs, as that loads classes: a load that finds another thread checking, or is made by the check
+     * itself, gets {@code false} back and has to go through the transformers instead.
+     *
+     * @return Whether Mixin state is current
+     */
+    public static boolean onCachedClassLoad() throws Throwable {
+        if (!stale) {
+            return true;
+        }
+        if (!checking.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            // Cleared first, so an invalidation during the check is not lost
+            stale = false;
+            check();
+        } catch (Throwable t) {
+            stale = true;
+            throw t;
+        } finally {
+            checking.set(false);
+        }
+        return !stale;
+    }
+
+    private static void check() throws Throwable {
         if (mixinTransformer == null) {
             for (IClassTransformer transformer : Launch.classLoader.getTransformers()) {
                 if (transformer instanceof Proxy) {
-                    Proxy mixinProxy = (Proxy) transformer;
-
                     Field transformerField = Proxy.class.getDeclaredField("transformer");
                     transformerField.setAccessible(true);
-                    mixinTransformer = (MixinTransformer) transformerField.get(mixinProxy);
+                    mixinTransformer = (MixinTransformer) transformerField.get(transformer);
+
+                    Field lockField = MixinTransformer.class.getDeclaredField("lock");
+                    lockField.setAccessible(true);
+                    lockGetter = MethodHandles.lookup().unreflectGetter(lockField);
+
+                    Method selectConfigsMethod = MixinTransformer.class.getDeclaredMethod("checkSelect", MixinEnvironment.class);
+                    selectConfigsMethod.setAccessible(true);
+                    checkSelect = MethodHandles.lookup().unreflect(selectConfigsMethod);
+                    break;
                 }
             }
         }
 
-        if (mixinTransformer == null) {
-            return;
-        }
-
         MixinEnvironment currentEnvironment = MixinEnvironment.getCurrentEnvironment();
-        if (currentEnvironment != lastEnvironment || Mixins.getUnvisitedCount() > 0) {
-            Field lockField = MixinTransformer.class.getDeclaredField("lock");
-            lockField.setAccessible(true);
-            ReEntranceLock lock = (ReEntranceLock) lockField.get(mixinTransformer);
+        if (mixinTransformer != null && (currentEnvironment != lastEnvironment || Mixins.getUnvisitedCount() > 0)) {
+            ReEntranceLock lock = (ReEntranceLock) lockGetter.invoke(mixinTransformer);
 
             boolean locked = lock.push().check();
             try {
@@ -48,15 +134,82 @@ public class MixinSupport {
                     LOGGER.info("Notifying Mixin of environment change " +
                                 (lastEnvironment == null ? "null" : lastEnvironment.toString()) + " -> " +
                                 (currentEnvironment == null ? "null" : currentEnvironment));
-                    Method selectConfigsMethod = MixinTransformer.class.getDeclaredMethod("checkSelect", MixinEnvironment.class);
-                    selectConfigsMethod.setAccessible(true);
-                    selectConfigsMethod.invoke(mixinTransformer, currentEnvironment);
+                    checkSelect.invoke(mixinTransformer, currentEnvironment);
+                } else {
+                    // Mixin is busy transforming on this thread, check again on a later load
+                    stale = true;
                 }
             } finally {
                 lock.pop();
             }
         }
 
+        updateFingerprints();
         lastEnvironment = currentEnvironment;
+        lastUnvisitedCount = Mixins.getUnvisitedCount();
+    }
+
+    private static void updateFingerprints() {
+        Set<Config> configs = Mixins.getConfigs();
+
+        // Targets are known once a config has been selected, so only re-hash when the selected configs changed
+        Set<String> selectedConfigs = new HashSet<String>();
+        for (Config config : configs) {
+            if (config.isVisited()) {
+                selectedConfigs.add(config.getName());
+            }
+        }
+        if (selectedConfigs.equals(fingerprintedConfigs)) {
+            return;
+        }
+
+        Map<String, Long> fingerprints = new HashMap<String, Long>();
+        for (Config config : configs) {
+            if (!config.isVisited()) {
+                continue;
+            }
+            IMixinConfig mixinConfig = config.getConfig();
+            long configFingerprint = fingerprintConfig(mixinConfig);
+            for (String target : mixinConfig.getTargets()) {
+                String targetName = target.replace('/', '.');
+                Long previous = fingerprints.get(targetName);
+                fingerprints.put(targetName, previous == null ? configFingerprint : previous * 31 + configFingerprint);
+            }
+        }
+        // Keep fingerprints within 32 bits, they are stored in the upper half of the cache key
+        for (Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+            long fingerprint = entry.getValue();
+            entry.setValue(((fingerprint ^ (fingerprint >>> 32)) & 0xFFFFFFFFL) | 1L);
+        }
+
+        targetFingerprints = fingerprints;
+        fingerprintedConfigs = selectedConfigs;
+        LOGGER.debug("Fingerprinted {} mixin targets from {} configs", fingerprints.size(), selectedConfigs.size());
+    }
+
+    private static long fingerprintConfig(IMixinConfig config) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(config.getName().getBytes());
+        MixinEnvironment environment = config.getEnvironment();
+        if (environment != null && environment.getPhase() != null) {
+            adler32.update(environment.getPhase().toString().getBytes());
+        }
+        for (String target : config.getTargets()) {
+            adler32.update(target.getBytes());
+        }
+
+        // The config file itself, it may change without any mod jar changing
+        try (InputStream stream = Launch.classLoader.getResourceAsStream(config.getName())) {
+            if (stream != null) {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    adler32.update(buffer, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read mixin config " + config.getName(), e);
+        }
+        return adler32.getValue();
     }
-}
\ No newline at end of file
+}
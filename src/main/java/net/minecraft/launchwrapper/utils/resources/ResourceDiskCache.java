@@ -0,0 +1,20 @@
+package net.minecraft.launchwrapper.utils.resources;
+
+import java.io.IOException;
+
+/**
+ * Persistent storage for {@link ResourcePipeline} results. Keys are built from the hashes of the original
+ * resource bytes, the resource path and the set of transformers that ran on it, so they stay valid across launches.
+ */
+public interface ResourceDiskCache {
+
+    /**
+     * @param key      Cache key
+     * @param original Original resource bytes, may be {@code null}
+     * @return Transformed bytes, {@code original} if no transformer changed the resource, or {@code null} on a miss
+     */
+    byte[] get(String key, byte[] original) throws IOException;
+
+    void put(String key, byte[] original, byte[] transformed) throws IOException;
+
+}
@@ -0,0 +1,256 @@
+package net.minecraft.launchwrapper.utils.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.zip.Adler32;
+
+import net.minecraft.launchwrapper.IResourceTransformer;
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * Runs {@link IResourceTransformer}s over classpath resources. Resources no transformer is interested in
+ * are never buffered, transformed results are kept in a size-bounded LRU cache which is separate from
+ * the class bytes cache of the {@link net.minecraft.launchwrapper.LaunchClassLoader}, and optionally
+ * in a {@link ResourceDiskCache} so later launches can skip the transformers.
+ */
+public class ResourcePipeline {
+
+    private static final int BUFFER_SIZE = 1 << 12;
+
+    private final List<Entry> transformers = new CopyOnWriteArrayList<>();
+    private final TransformedCache transformedCache;
+    private ResourceDiskCache diskCache;
+    // Resources which were run through the pipeline but no transformer changed
+    private final Set<String> untransformedResources = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public ResourcePipeline(long maxCachedBytes) {
+        this.transformedCache = new TransformedCache(maxCachedBytes);
+    }
+
+    public void setDiskCache(ResourceDiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    public void addTransformer(IResourceTransformer transformer) {
+        transformers.add(new Entry(transformer));
+        // Previous results didn't see this transformer
+        transformedCache.clear();
+        untransformedResources.clear();
+    }
+
+    public List<IResourceTransformer> getTransformers() {
+        List<IResourceTransformer> list = new ArrayList<>(transformers.size());
+        for (Entry entry : transformers) {
+            list.add(entry.transformer);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Opens the given resource, transforming it if any registered transformer is interested in it.
+     *
+     * @param name   Resource path
+     * @param opener Opens the untransformed resource, returns {@code null} if it doesn't exist
+     * @return Resource stream, or {@code null} if the resource doesn't exist and no transformer generated it
+     */
+    public InputStream getResourceAsStream(String name, Function<String, InputStream> opener) {
+        byte[] cached = transformedCache.get(name);
+        if (cached != null) {
+            return new ByteArrayInputStream(cached);
+        }
+        if (untransformedResources.contains(name)) {
+            return opener.apply(name);
+        }
+
+        List<IResourceTransformer> applicable = null;
+        for (Entry entry : transformers) {
+            if (entry.matches(name)) {
+                if (applicable == null) {
+                    applicable = new ArrayList<>(2);
+                }
+                applicable.add(entry.transformer);
+            }
+        }
+        if (applicable == null) {
+            return opener.apply(name);
+        }
+
+        byte[] original = null;
+        try (InputStream stream = opener.apply(name)) {
+            if (stream != null) {
+                original = readFully(stream);
+            }
+        } catch (IOException e) {
+            LogWrapper.warning("Problem reading resource {}", name, e);
+            return null;
+        }
+
+        String diskKey = null;
+        byte[] data = null;
+        if (diskCache != null) {
+            diskKey = getDiskKey(name, original, applicable);
+            try {
+                data = diskCache.get(diskKey, original);
+            } catch (IOException e) {
+                LogWrapper.warning("Failed to read cached resource {}", name, e);
+            }
+        }
+
+        if (data == null) {
+            data = original;
+            for (IResourceTransformer transformer : applicable) {
+                byte[] transformed = transformer.transform(name, data);
+                if (transformed != null) {
+                    data = transformed;
+                }
+            }
+
+            if (diskKey != null && data != null) {
+                try {
+                    diskCache.put(diskKey, original, data);
+                } catch (IOException e) {
+                    LogWrapper.warning("Failed to cache resource {}", name, e);
+                }
+            }
+        }
+
+        if (data == original) {
+            untransformedResources.add(name);
+        } else {
+            transformedCache.put(name, data);
+        }
+        return data == null ? null : new ByteArrayInputStream(data);
+    }
+
+    /**
+     * Transformers get the resource path, so it is part of the key along with the content. Generated
+     * resources have no content and are told apart by their path alone.
+     */
+    private static String getDiskKey(String name, byte[] original, List<IResourceTransformer> applicable) {
+        Adler32 adler32 = new Adler32();
+        long originalHash = 0;
+        if (original != null) {
+            adler32.update(original);
+            originalHash = adler32.getValue();
+            adler32.reset();
+        }
+        adler32.update(name.getBytes(StandardCharsets.UTF_8));
+        long nameHash = adler32.getValue();
+        adler32.reset();
+        for (IResourceTransformer transformer : applicable) {
+            String transformerName = transformer.getClass().getName();
+            for (int i = 0; i < transformerName.length(); i++) {
+                adler32.update(transformerName.charAt(i));
+            }
+            adler32.update(';');
+        }
+        return Long.toHexString(originalHash) + "-" + Long.toHexString(nameHash) + "-" + Long.toHexString(adler32.getValue());
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(Math.max(stream.available(), 32));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int readBytes;
+        while ((readBytes = stream.read(buffer, 0, buffer.length)) != -1) {
+            os.write(buffer, 0, readBytes);
+        }
+        return os.toByteArray();
+    }
+
+    private static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 8);
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static class Entry {
+        private final IResourceTransformer transformer;
+        private final Pattern[] patterns;
+
+        private Entry(IResourceTransformer transformer) {
+            this.transformer = transformer;
+            String[] globs = transformer.getResourcePatterns();
+            if (globs == null) {
+                this.patterns = null;
+            } else {
+                this.patterns = new Pattern[globs.length];
+                for (int i = 0; i < globs.length; i++) {
+                    this.patterns[i] = compileGlob(globs[i]);
+                }
+            }
+        }
+
+        private boolean matches(String name) {
+            if (patterns == null) {
+                return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(name).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class TransformedCache {
+        private final long maxBytes;
+        private long bytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75F, true);
+
+        private TransformedCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized byte[] get(String name) {
+            return entries.get(name);
+        }
+
+        private synchronized void put(String name, byte[] data) {
+            if (data.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(name, data);
+            bytes += data.length - (previous == null ? 0 : previous.length);
+            for (Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator(); bytes > maxBytes && it.hasNext(); ) {
+                bytes -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+}
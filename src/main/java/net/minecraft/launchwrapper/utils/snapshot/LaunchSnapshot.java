@@ -0,0 +1,210 @@
+package net.minecraft.launchwrapper.utils.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.minecraft.launchwrapper.IClassTransformer;
+import net.minecraft.launchwrapper.LaunchClassLoader;
+import net.minecraft.launchwrapper.LogWrapper;
+
+/**
+ * State resolved by a launch: the classpath, the final tweak class chain, registered transformers and the
+ * loader exclusions. It's keyed by the launch arguments, the JVM, the classpath jars and the mods folder,
+ * so a relaunch with the same inputs can skip classpath resolution and warm up the known classes while the
+ * tweakers run. Tweakers themselves still run, as registering transformers has side effects.
+ */
+public class LaunchSnapshot {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("legacy.launchSnapshot", "true"));
+    private static final int FORMAT_VERSION = 1;
+    /**
+     * Arguments whose values identify the account or session, these change between launches
+     * without affecting the launch state and must not end up in the key.
+     */
+    private static final Set<String> CREDENTIAL_ARGS = new HashSet<>(Arrays.asList(
+            "--accessToken", "--session", "--uuid", "--username", "--password", "--userProperties",
+            "--profileProperties", "--clientId", "--xuid", "--userType"));
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    public int version = FORMAT_VERSION;
+    public String key;
+    public List<String> classpath = new ArrayList<>();
+    public List<String> tweakClasses = new ArrayList<>();
+    public List<String> transformers = new ArrayList<>();
+    public Set<String> classLoaderExclusions = new TreeSet<>();
+    public Set<String> transformerExclusions = new TreeSet<>();
+
+    /**
+     * Builds the snapshot key from everything that can change the resolved launch state. Credential and
+     * session arguments are left out.
+     */
+    public static String computeKey(String[] args, File gameDir) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            update(digest, "v" + FORMAT_VERSION);
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                int separator = arg.indexOf('=');
+                if (CREDENTIAL_ARGS.contains(separator == -1 ? arg : arg.substring(0, separator))) {
+                    if (separator == -1) {
+                        i++;
+                    }
+                    continue;
+                }
+                // Positional session ids of older launchers
+                if (arg.startsWith("token:")) {
+                    continue;
+                }
+                update(digest, arg);
+            }
+            update(digest, System.getProperty("java.home"));
+            update(digest, System.getProperty("java.version"));
+
+            String classpath = System.getProperty("java.class.path", "");
+            for (String element : classpath.split(File.pathSeparator)) {
+                updateFile(digest, new File(element));
+            }
+
+            File[] mods = new File(gameDir, "mods").listFiles();
+            if (mods != null) {
+                Arrays.sort(mods);
+                for (File mod : mods) {
+                    updateFile(digest, mod);
+                }
+            }
+
+            StringBuilder key = new StringBuilder(40);
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void updateFile(MessageDigest digest, File file) {
+        update(digest, file.getAbsolutePath());
+        update(digest, file.length() + ":" + file.lastModified());
+    }
+
+    /**
+     * @return The stored snapshot, or {@code null} if there is none or it was made for other inputs
+     */
+    public static LaunchSnapshot load(File file, String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            LaunchSnapshot snapshot = GSON.fromJson(reader, LaunchSnapshot.class);
+            if (snapshot == null || snapshot.version != FORMAT_VERSION || !key.equals(snapshot.key)) {
+                LogWrapper.info("Launch inputs changed, ignoring launch snapshot");
+                return null;
+            }
+            return snapshot;
+        } catch (Throwable t) {
+            LogWrapper.warning("Failed to read launch snapshot", t);
+            return null;
+        }
+    }
+
+    public static LaunchSnapshot capture(String key, URL[] classpath, Collection<String> tweakClasses, LaunchClassLoader classLoader) {
+        LaunchSnapshot snapshot = new LaunchSnapshot();
+        snapshot.key = key;
+        for (URL url : classpath) {
+            snapshot.classpath.add(url.toString());
+        }
+        snapshot.tweakClasses.addAll(tweakClasses);
+        for (IClassTransformer transformer : classLoader.getTransformers()) {
+            snapshot.transformers.add(transformer.getClass().getName());
+        }
+        snapshot.classLoaderExclusions.addAll(classLoader.getClassLoaderExclusions());
+        snapshot.transformerExclusions.addAll(classLoader.getTransformerExclusions());
+        return snapshot;
+    }
+
+    public void save(File file) throws IOException {
+        Files.write(file.toPath(), GSON.toJson(this).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public URL[] getClasspath() throws MalformedURLException {
+        URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = new URL(classpath.get(i));
+        }
+        return urls;
+    }
+
+    /**
+     * Starts warming up the recorded tweaker and transformer classes. The recorded exclusions are not applied,
+     * they take effect when the tweakers add them as usual; they only decide how a class is warmed. Classes
+     * under a classloader exclusion are loaded through the parent, for the others only the raw bytes are read,
+     * since defining them now would skip transformers which aren't registered yet.
+     * <p>
+     * Tweakers may add the jars of these classes later, so a class that can't be found yet is skipped without
+     * leaving a negative entry in the class loader.
+     */
+    public void restore(LaunchClassLoader classLoader) {
+        final ClassLoader parent = LaunchClassLoader.class.getClassLoader();
+        final List<String> classes = new ArrayList<>(tweakClasses.size() + transformers.size());
+        classes.addAll(tweakClasses);
+        classes.addAll(transformers);
+        Thread warmup = new Thread(() -> {
+            for (String name : classes) {
+                try {
+                    if (isExcluded(name)) {
+                        Class.forName(name, false, parent);
+                    } else if (classLoader.findResource(name.replace('.', '/').concat(".class")) != null) {
+                        classLoader.getClassBytes(name);
+                    }
+                } catch (Throwable ignored) {
+                    // Not available yet, the launch loads it normally
+                }
+            }
+        }, "LaunchWrapper-Snapshot-Warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    private boolean isExcluded(String name) {
+        for (String exclusion : classLoaderExclusions) {
+            if (name.startsWith(exclusion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Whether both snapshots describe the same resolved state
+     */
+    public boolean sameState(LaunchSnapshot other) {
+        return classpath.equals(other.classpath)
+                && tweakClasses.equals(other.tweakClasses)
+                && transformers.equals(other.transformers)
+                && classLoaderExclusions.equals(other.classLoaderExclusions)
+                && transformerExclusions.equals(other.transformerExclusions);
+    }
+}
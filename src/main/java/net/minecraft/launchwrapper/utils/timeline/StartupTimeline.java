@@ -0,0 +1,101 @@
+package net.minecraft.launchwrapper.utils.timeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Records named spans of the launch process. The instance is published on the blackboard as
+ * {@code "StartupTimeline"}, so tweakers can add their own spans, and is written to the game
+ * directory as JSON right before the game's main method is invoked.
+ * <pre>{@code
+ * try (StartupTimeline.Span span = StartupTimeline.get().begin("mymod.scan")) {
+ *     scanMods();
+ * }
+ * }</pre>
+ */
+public class StartupTimeline {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("legacy.startupTimeline", "true"));
+    private static final StartupTimeline INSTANCE = new StartupTimeline();
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final long originNanos = System.nanoTime();
+    private final long startedAt = System.currentTimeMillis();
+    private final List<Entry> spans = new ArrayList<>();
+
+    public static StartupTimeline get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts a span which ends when it's closed.
+     */
+    public Span begin(String name) {
+        return new Span(name, System.nanoTime());
+    }
+
+    /**
+     * Records a span measured elsewhere, times are {@link System#nanoTime()} values.
+     */
+    public void record(String name, long startNanos, long endNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        Entry entry = new Entry(name, Thread.currentThread().getName(), (startNanos - originNanos) / 1e6, (endNanos - startNanos) / 1e6);
+        synchronized (spans) {
+            spans.add(entry);
+        }
+    }
+
+    public void write(File file) throws IOException {
+        if (!ENABLED) {
+            return;
+        }
+        Report report = new Report();
+        report.startedAt = startedAt;
+        synchronized (spans) {
+            report.spans = new ArrayList<>(spans);
+        }
+        Files.write(file.toPath(), GSON.toJson(report).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public class Span implements AutoCloseable {
+        private final String name;
+        private final long startNanos;
+
+        private Span(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            record(name, startNanos, System.nanoTime());
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final String thread;
+        private final double startMs;
+        private final double durationMs;
+
+        private Entry(String name, String thread, double startMs, double durationMs) {
+            this.name = name;
+            this.thread = thread;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private static class Report {
+        private long startedAt;
+        private List<Entry> spans;
+    }
+}
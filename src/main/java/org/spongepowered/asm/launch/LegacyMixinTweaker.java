@@ -36,6 +36,7 @@ import org.spongepowered.asm.service.MixinServiceAbstract;
 import net.minecraft.launch.MinecraftLaunchHelper;
 import net.minecraft.launchwrapper.ITweaker;
 import net.minecraft.launchwrapper.LaunchClassLoader;
+import net.minecraft.launchwrapper.utils.mixin.MixinSupport;
 
 /**
  * TweakClass for running mixins in production. Being a tweaker ensures that we
@@ -59,6 +60,7 @@ public class LegacyMixinTweaker implements ITweaker {
     @Override
     public final void acceptOptions(List<String> args, File gameDir, File assetsDir, String profile) {
         MixinBootstrap.doInit(CommandLineOptions.ofArgs(args));
+        MixinSupport.invalidate();
     }
 
     /* (non-Javadoc)
@@ -68,6 +70,7 @@ public class LegacyMixinTweaker implements ITweaker {
     @Override
     public final void injectIntoClassLoader(LaunchClassLoader classLoader) {
         MixinBootstrap.inject();
+        MixinSupport.invalidate();
     }
     
     private void setMixinSide() {
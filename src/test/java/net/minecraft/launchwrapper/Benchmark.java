@@ -0,0 +1,95 @@
+package net.minecraft.launchwrapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Timing harness for the benchmarks in the test sources. Benchmarks are main classes rather than tests, run one
+ * with {@code gradlew benchmark -Pbenchmark=<class name>}.
+ * <p>
+ * Settings that are read once per JVM, like {@code legacy.platformFastLane}, are compared by running each variant
+ * in its own JVM with {@link #fork(Class, String[], String...)}.
+ */
+public final class Benchmark {
+    private static final int WARMUP_ROUNDS = Integer.getInteger("benchmark.warmupRounds", 5);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 10);
+    // Keeps results reachable so the JIT can't drop the measured work
+    private static volatile Object sink;
+
+    private Benchmark() {
+    }
+
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Runs warmup rounds, then measured rounds of {@code iterations} calls, and prints the median and best time
+     * per call.
+     *
+     * @return Median nanoseconds per call
+     */
+    public static double measure(String name, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round(iterations, operation);
+        }
+        long[] times = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            times[i] = round(iterations, operation);
+        }
+        Arrays.sort(times);
+        double median = (double) times[ROUNDS / 2] / iterations;
+        report(name, median, (double) times[0] / iterations, "ns/op");
+        return median;
+    }
+
+    /**
+     * @return How often {@link #measure(String, int, Operation)} calls the operation, for operations that can't
+     *         repeat their work, like loading a class
+     */
+    public static int totalCalls(int iterations) {
+        return (WARMUP_ROUNDS + ROUNDS) * iterations;
+    }
+
+    /**
+     * Prints a result that was timed by the benchmark itself.
+     */
+    public static void report(String name, double median, double best, String unit) {
+        System.out.printf(Locale.ROOT, "%-48s %14.1f %s (best %.1f)%n", name, median, unit, best);
+    }
+
+    private static long round(int iterations, Operation operation) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Runs a main class in a new JVM with the current classpath and waits for it to finish.
+     *
+     * @param properties System properties as {@code name=value}
+     * @param args Arguments of the main method
+     */
+    public static void fork(Class<?> mainClass, String[] properties, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        for (String property : properties) {
+            command.add("-D" + property);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(Arrays.asList(args));
+
+        int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(mainClass.getName() + " " + String.join(" ", args) + " exited with " + exitCode);
+        }
+    }
+}
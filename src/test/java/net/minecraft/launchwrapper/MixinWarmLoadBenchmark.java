@@ -0,0 +1,128 @@
+package net.minecraft.launchwrapper;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import net.minecraft.launchwrapper.utils.mixin.MixinSupport;
+
+/**
+ * Loads classes from a warm class cache with and without the Mixin checks of {@link LaunchClassLoader}.
+ * <p>
+ * A first JVM loads every class of a generated jar through a transformer and saves the class cache, the
+ * measured JVMs then serve the same classes from it. With Mixin, the loader takes its Mixin path, the way it
+ * does once Mixin's Proxy was loaded. Mixin itself isn't bootstrapped: {@link MixinSupport} is put into the
+ * state it has after a check, which is the state every warm load between two Mixin changes sees.
+ */
+public class MixinWarmLoadBenchmark {
+    private static final int ITERATIONS = 1000;
+    private static final String PACKAGE = "benchmark/generated/";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            File home = Files.createTempDirectory("launchwrapper-benchmark").toFile();
+            File jar = new File(home, "classes.jar");
+            try {
+                writeJar(jar, Benchmark.totalCalls(ITERATIONS));
+                String[] properties = { "benchmark.home=" + home.getPath() };
+                Benchmark.fork(MixinWarmLoadBenchmark.class, properties, "cold");
+                Benchmark.fork(MixinWarmLoadBenchmark.class, properties, "warm");
+                Benchmark.fork(MixinWarmLoadBenchmark.class, properties, "warm, mixin");
+            } finally {
+                for (File file : home.listFiles()) {
+                    file.delete();
+                }
+                home.delete();
+            }
+            return;
+        }
+
+        Launch.minecraftHome = new File(System.getProperty("benchmark.home"));
+        LaunchClassLoader classLoader = new LaunchClassLoader(new URL[] { new File(Launch.minecraftHome, "classes.jar").toURI().toURL() });
+        CountingTransformer transformer = new CountingTransformer();
+        classLoader.registerTransformer(transformer);
+        if (args[0].endsWith("mixin")) {
+            setField(LaunchClassLoader.class, classLoader, "isMixinLoaded", true);
+            setField(MixinSupport.class, null, "stale", false);
+        }
+
+        int[] next = { 0 };
+        Benchmark.measure("load " + args[0], ITERATIONS, () -> classLoader.loadClass(className(next[0]++).replace('/', '.')));
+        if (!args[0].equals("cold") && transformer.calls.get() > 0) {
+            System.out.println("  " + transformer.calls.get() + " classes missed the class cache");
+        }
+    }
+
+    private static void setField(Class<?> owner, Object instance, String name, Object value) throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    private static String className(int index) {
+        return PACKAGE + "Class" + index;
+    }
+
+    private static void writeJar(File file, int classes) throws IOException {
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < classes; i++) {
+                String name = className(i);
+                ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+                writer.visit(V1_8, ACC_PUBLIC, name, null, "java/lang/Object", null);
+                MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "value", "()I", null, null);
+                method.visitCode();
+                method.visitLdcInsn(i);
+                method.visitInsn(IRETURN);
+                method.visitMaxs(0, 0);
+                method.visitEnd();
+                writer.visitEnd();
+
+                jar.putNextEntry(new JarEntry(name + ".class"));
+                jar.write(writer.toByteArray());
+                jar.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Adds a field to every class, so the class cache stores the transformed bytes separately.
+     */
+    private static class CountingTransformer implements IClassTransformer {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public byte[] transform(String name, String transformedName, byte[] bytes) {
+            if (bytes == null || !name.startsWith(PACKAGE.replace('/', '.'))) {
+                return bytes;
+            }
+            calls.incrementAndGet();
+            ClassReader reader = new ClassReader(bytes);
+            ClassWriter writer = new ClassWriter(reader, 0);
+            reader.accept(new ClassVisitor(ASM9, writer) {
+                @Override
+                public void visitEnd() {
+                    visitField(ACC_PUBLIC | ACC_STATIC, "transformed", "Z", null, null).visitEnd();
+                    super.visitEnd();
+                }
+            }, 0);
+            return writer.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.minecraft.launchwrapper;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+
+/**
+ * Loads JDK classes through {@link LaunchClassLoader} with and without the platform fast lane. Each variant runs
+ * in its own JVM, as {@code legacy.platformFastLane} is read once.
+ */
+public class PlatformFastLaneBenchmark {
+    private static final String[] CLASSES = {
+            "java.lang.String",
+            "java.util.ArrayList",
+            "java.util.concurrent.ConcurrentHashMap",
+            "java.io.File",
+            "java.nio.ByteBuffer",
+            "java.lang.invoke.MethodHandle",
+            "java.sql.Timestamp",
+            "java.util.logging.Logger",
+            "javax.crypto.Cipher",
+            "java.awt.image.BufferedImage"
+    };
+    private static final int ITERATIONS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            Benchmark.fork(PlatformFastLaneBenchmark.class, new String[] { "legacy.platformFastLane=true" }, "fast lane");
+            Benchmark.fork(PlatformFastLaneBenchmark.class, new String[] { "legacy.platformFastLane=false" }, "full lookup");
+            return;
+        }
+
+        // Keep the class cache of this loader out of the working directory
+        File home = Files.createTempDirectory("launchwrapper-benchmark").toFile();
+        home.deleteOnExit();
+        new File(home, "class_cache.zip").deleteOnExit();
+        Launch.minecraftHome = home;
+
+        LaunchClassLoader classLoader = new LaunchClassLoader(new URL[0]);
+        int[] next = { 0 };
+        Benchmark.measure("JDK loadClass, " + args[0], ITERATIONS, () -> classLoader.loadClass(CLASSES[next[0]++ % CLASSES.length]));
+    }
+}
@@ -0,0 +1,157 @@
+package net.minecraft.launchwrapper.injector;
+
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IADD;
+import static org.objectweb.asm.Opcodes.IAND;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.ISUB;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.io.File;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import net.minecraft.launchwrapper.Benchmark;
+
+/**
+ * Patches the main method of a generated Minecraft class with {@link PatchingTransformer} and with the
+ * ClassNode injector VanillaTweakInjector used before. The class has {@code benchmark.methods} methods
+ * with loops, so both frames and unchanged method bodies are part of the cost.
+ */
+public class PatchingTransformerBenchmark {
+    private static final String MINECRAFT = "net/minecraft/client/Minecraft";
+    private static final int METHODS = Integer.getInteger("benchmark.methods", 500);
+    private static final int ITERATIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+        byte[] bytes = createMinecraftClass(METHODS);
+
+        PatchingTransformer transformer = new PatchingTransformer();
+        transformer.register(MINECRAFT.replace('/', '.'), MethodPatch.assignFieldAtEntry("main", null, MINECRAFT,
+                "net/minecraft/launchwrapper/injector/VanillaTweakInjector", "inject", "()Ljava/io/File;"));
+
+        System.out.println(METHODS + " methods, " + bytes.length + " bytes");
+        Benchmark.measure("PatchingTransformer", ITERATIONS,
+                () -> transformer.transform("net.minecraft.client.Minecraft", "net.minecraft.client.Minecraft", bytes));
+        Benchmark.measure("ClassNode injector", ITERATIONS, () -> injectWithClassNode(bytes));
+    }
+
+    /**
+     * The transform of VanillaTweakInjector before it moved to {@link PatchingTransformer}.
+     */
+    private static byte[] injectWithClassNode(byte[] bytes) {
+        final ClassNode classNode = new ClassNode();
+        final ClassReader classReader = new ClassReader(bytes);
+        classReader.accept(classNode, ClassReader.EXPAND_FRAMES);
+
+        MethodNode mainMethod = null;
+        for (final MethodNode methodNode : classNode.methods) {
+            if ("main".equals(methodNode.name)) {
+                mainMethod = methodNode;
+                break;
+            }
+        }
+
+        FieldNode workDirNode = null;
+        for (final FieldNode fieldNode : classNode.fields) {
+            final String fileTypeDescriptor = Type.getDescriptor(File.class);
+            if (fileTypeDescriptor.equals(fieldNode.desc) && (fieldNode.access & ACC_STATIC) == ACC_STATIC) {
+                workDirNode = fieldNode;
+                break;
+            }
+        }
+
+        final MethodNode injectedMethod = new MethodNode();
+        final Label label = new Label();
+        injectedMethod.visitLabel(label);
+        injectedMethod.visitLineNumber(9001, label);
+        injectedMethod.visitMethodInsn(INVOKESTATIC, "net/minecraft/launchwrapper/injector/VanillaTweakInjector", "inject", "()Ljava/io/File;", false);
+        injectedMethod.visitFieldInsn(PUTSTATIC, MINECRAFT, workDirNode.name, "Ljava/io/File;");
+
+        mainMethod.instructions.insert(injectedMethod.instructions);
+
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        classNode.accept(writer);
+        return writer.toByteArray();
+    }
+
+    private static byte[] createMinecraftClass(int methods) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        writer.visit(V1_8, ACC_PUBLIC, MINECRAFT, null, "java/lang/Object", null);
+        writer.visitField(ACC_PUBLIC | ACC_STATIC, "workDir", "Ljava/io/File;", null, null).visitEnd();
+
+        MethodVisitor main = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+        main.visitCode();
+        main.visitFieldInsn(GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        main.visitVarInsn(ALOAD, 0);
+        main.visitInsn(ARRAYLENGTH);
+        main.visitMethodInsn(INVOKEVIRTUAL, "java/io/PrintStream", "println", "(I)V", false);
+        main.visitInsn(RETURN);
+        main.visitMaxs(0, 0);
+        main.visitEnd();
+
+        // int method(int x) { int sum = 0; for (int i = 0; i < x; i++) { if ((i & 1) == 0) sum += i; else sum -= i; } return sum; }
+        for (int m = 0; m < methods; m++) {
+            MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "method" + m, "(I)I", null, null);
+            method.visitCode();
+            method.visitInsn(ICONST_0);
+            method.visitVarInsn(ISTORE, 1);
+            method.visitInsn(ICONST_0);
+            method.visitVarInsn(ISTORE, 2);
+            Label loop = new Label();
+            Label odd = new Label();
+            Label next = new Label();
+            Label end = new Label();
+            method.visitLabel(loop);
+            method.visitVarInsn(ILOAD, 2);
+            method.visitVarInsn(ILOAD, 0);
+            method.visitJumpInsn(IF_ICMPGE, end);
+            method.visitVarInsn(ILOAD, 2);
+            method.visitInsn(ICONST_1);
+            method.visitInsn(IAND);
+            method.visitJumpInsn(IFNE, odd);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitVarInsn(ILOAD, 2);
+            method.visitInsn(IADD);
+            method.visitVarInsn(ISTORE, 1);
+            method.visitJumpInsn(GOTO, next);
+            method.visitLabel(odd);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitVarInsn(ILOAD, 2);
+            method.visitInsn(ISUB);
+            method.visitVarInsn(ISTORE, 1);
+            method.visitLabel(next);
+            method.visitIincInsn(2, 1);
+            method.visitJumpInsn(GOTO, loop);
+            method.visitLabel(end);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitInsn(IRETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
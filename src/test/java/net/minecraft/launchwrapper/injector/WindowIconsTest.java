@@ -0,0 +1,151 @@
+package net.minecraft.launchwrapper.injector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+public class WindowIconsTest {
+
+    @Test
+    public void loadsIconsWithoutDisplay() throws Exception {
+        File directory = Files.createTempDirectory("icons").toFile();
+        try {
+            File[] files = { writeIcon(directory, 16, 0x80FF4020), writeIcon(directory, 32, 0xFF102030) };
+            FakeSink sink = new FakeSink();
+            WindowIcons.loadAsync(files, sink).get();
+
+            assertEquals(2, sink.displayIcons.length);
+            assertEquals(4 * 16 * 16, sink.displayIcons[0].remaining());
+            assertEquals(0xFF402080, sink.displayIcons[0].getInt(0));
+            assertEquals(0x102030FF, sink.displayIcons[1].getInt(0));
+            assertEquals(2, sink.frameIcons.size());
+            assertEquals(32, sink.frameIcons.get(1).getWidth(null));
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void failsForMissingIcons() throws Exception {
+        FakeSink sink = new FakeSink();
+        try {
+            WindowIcons.loadAsync(new File[] { new File("missing_icon.png") }, sink).get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals(null, sink.displayIcons);
+            return;
+        }
+        throw new AssertionError("Expected the icons to fail loading");
+    }
+
+    @Test
+    public void patchesDisplayCalls() {
+        PatchingTransformer transformer = new PatchingTransformer();
+        transformer.register(WindowIcons.DISPLAY_USERS, WindowIcons.DISPLAY_PATCH);
+
+        byte[] patched = transformer.transform("Game", "Game", createClass("Game", true));
+        MethodNode method = readMethod(patched, "run");
+        List<String> calls = new ArrayList<>();
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction instanceof MethodInsnNode) {
+                calls.add(((MethodInsnNode) instruction).name);
+            }
+        }
+        assertEquals("[applyDisplayIcons, create, isCreated, applyDisplayIcons, update]", calls.toString());
+    }
+
+    @Test
+    public void leavesOtherClassesAlone() {
+        PatchingTransformer transformer = new PatchingTransformer();
+        transformer.register(WindowIcons.DISPLAY_USERS, WindowIcons.DISPLAY_PATCH);
+
+        byte[] bytes = createClass("Other", false);
+        assertSame(bytes, transformer.transform("Other", "Other", bytes));
+    }
+
+    private static File writeIcon(File directory, int size, int argb) throws IOException {
+        BufferedImage icon = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                icon.setRGB(x, y, argb);
+            }
+        }
+        File file = new File(directory, "icon_" + size + ".png");
+        ImageIO.write(icon, "png", file);
+        return file;
+    }
+
+    private static byte[] createClass(String name, boolean callsDisplay) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC, name, null, "java/lang/Object", null);
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "run", "()V", null, null);
+        method.visitCode();
+        if (callsDisplay) {
+            method.visitMethodInsn(INVOKESTATIC, "org/lwjgl/opengl/Display", "create", "()V", false);
+            method.visitMethodInsn(INVOKESTATIC, "org/lwjgl/opengl/Display", "isCreated", "()Z", false);
+            method.visitInsn(POP);
+            method.visitMethodInsn(INVOKESTATIC, "org/lwjgl/opengl/Display", "update", "()V", false);
+        }
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static MethodNode readMethod(byte[] bytes, String name) {
+        ClassNode classNode = new ClassNode();
+        new ClassReader(bytes).accept(classNode, 0);
+        for (MethodNode method : classNode.methods) {
+            if (method.name.equals(name)) {
+                return method;
+            }
+        }
+        throw new AssertionError("No method " + name);
+    }
+
+    private static class FakeSink implements WindowIcons.Sink {
+        private ByteBuffer[] displayIcons;
+        private List<Image> frameIcons;
+
+        @Override
+        public void setDisplayIcons(ByteBuffer[] icons) {
+            displayIcons = icons;
+        }
+
+        @Override
+        public void setFrameIcons(List<Image> icons) {
+            frameIcons = icons;
+        }
+    }
+}
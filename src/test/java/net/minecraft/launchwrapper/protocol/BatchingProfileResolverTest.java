@@ -0,0 +1,164 @@
+package net.minecraft.launchwrapper.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.mojang.authlib.Agent;
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.GameProfileRepository;
+import com.mojang.authlib.ProfileLookupCallback;
+import com.mojang.authlib.minecraft.MinecraftProfileTexture;
+import com.mojang.authlib.yggdrasil.ProfileNotFoundException;
+
+public class BatchingProfileResolverTest {
+
+    @Test
+    public void batchesRequestsFromASmallPool() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        BatchingProfileResolver resolver = new BatchingProfileResolver(repository);
+
+        // As many threads as the texture pool, resolving must not tie them up until their batch is sent
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<CompletableFuture<GameProfile>>> requests = new ArrayList<>();
+        try {
+            for (int i = 0; i < 25; i++) {
+                String name = "Player" + i;
+                requests.add(pool.submit(() -> resolver.resolve(name)));
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                GameProfile profile = requests.get(i).get().get(5, TimeUnit.SECONDS);
+                assertEquals("PLAYER" + i, profile.getName());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        int names = 0;
+        int largest = 0;
+        for (List<String> batch : repository.batches) {
+            assertTrue("batch of " + batch.size(), batch.size() <= 10);
+            names += batch.size();
+            largest = Math.max(largest, batch.size());
+        }
+        assertEquals(25, names);
+        assertEquals(10, largest);
+    }
+
+    @Test
+    public void missingPlayerResolvesToNull() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        repository.missing.add("nobody");
+        BatchingProfileResolver resolver = new BatchingProfileResolver(repository);
+
+        assertNull(resolver.resolve("Nobody").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedLookupFails() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        repository.failing.add("broken");
+        BatchingProfileResolver resolver = new BatchingProfileResolver(repository);
+
+        CompletableFuture<GameProfile> broken = resolver.resolve("Broken");
+        CompletableFuture<GameProfile> other = resolver.resolve("Other");
+        assertTrue(failure(broken) instanceof IOException);
+        assertEquals("OTHER", other.get(5, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    public void nameWithoutResultFails() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        repository.ignored.add("skipped");
+        BatchingProfileResolver resolver = new BatchingProfileResolver(repository);
+
+        assertTrue(failure(resolver.resolve("Skipped")) instanceof IOException);
+    }
+
+    @Test
+    public void failuresAreNotCachedAsMissing() throws Exception {
+        FakeRepository repository = new FakeRepository();
+        repository.ignored.add("flaky");
+        BatchingProfileResolver resolver = new BatchingProfileResolver(repository);
+        AtomicInteger textureLookups = new AtomicInteger();
+        ProfileCache cache = ProfileCache.get();
+        cache.setService(new ProfileService() {
+            @Override
+            public GameProfile findProfile(String username) throws Exception {
+                return resolver.resolve(username).get();
+            }
+
+            @Override
+            public CompletableFuture<GameProfile> findProfileAsync(String username) {
+                return resolver.resolve(username);
+            }
+
+            @Override
+            public Map<MinecraftProfileTexture.Type, MinecraftProfileTexture> getTextures(GameProfile profile) {
+                textureLookups.incrementAndGet();
+                return Collections.singletonMap(MinecraftProfileTexture.Type.SKIN, null);
+            }
+        });
+        try {
+            assertTrue(failure(cache.getTexturesAsync("Flaky")) instanceof IOException);
+
+            repository.ignored.clear();
+            assertEquals(1, cache.getTexturesAsync("Flaky").get(5, TimeUnit.SECONDS).size());
+            assertEquals(1, textureLookups.get());
+        } finally {
+            cache.setService(null);
+        }
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected the lookup to fail");
+    }
+
+    /**
+     * Answers every name with an upper case profile, except the ones it was told to report missing, fail or skip.
+     */
+    private static class FakeRepository implements GameProfileRepository {
+        final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<String> missing = new ArrayList<>();
+        final List<String> failing = new ArrayList<>();
+        final List<String> ignored = new ArrayList<>();
+
+        @Override
+        public void findProfilesByNames(String[] names, Agent agent, ProfileLookupCallback callback) {
+            batches.add(Arrays.asList(names));
+            for (String name : names) {
+                GameProfile profile = new GameProfile(null, name.toUpperCase(Locale.ROOT));
+                if (missing.contains(name)) {
+                    callback.onProfileLookupFailed(profile, new ProfileNotFoundException("Server did not find the requested profile"));
+                } else if (failing.contains(name)) {
+                    callback.onProfileLookupFailed(profile, new IOException("Service unavailable"));
+                } else if (!ignored.contains(name)) {
+                    callback.onProfileLookupSucceeded(new GameProfile(UUID.randomUUID(), profile.getName()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.minecraft.launchwrapper.protocol;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import net.minecraft.launchwrapper.Benchmark;
+
+/**
+ * Converts a 64x64 skin to the legacy layout the way {@link SkinURLConnection} does, and with the Graphics2D
+ * converter it replaced (see {@link LegacySkinConverterTest}). The conversion and the PNG encoding are also
+ * timed on their own, without decoding the modern skin.
+ */
+public class LegacySkinConverterBenchmark {
+    private static final int ITERATIONS = 500;
+
+    public static void main(String[] args) throws Exception {
+        byte[] png = LegacySkinConverterTest.randomSkin(new Random(1), 64, true);
+        BufferedImage skin = ImageIO.read(new ByteArrayInputStream(png));
+        int[] pixels = skin.getRGB(0, 0, 64, 64, null, 0, 64);
+        int[] legacyPixels = LegacySkinConverter.convert(pixels, 64, 64, true);
+
+        for (boolean slim : new boolean[] { false, true }) {
+            String model = slim ? "slim" : "classic";
+            Benchmark.measure("SkinURLConnection, " + model, ITERATIONS, () -> SkinURLConnection.convertModernSkinToBytes(png, slim));
+            Benchmark.measure("Graphics2D, " + model, ITERATIONS, () -> LegacySkinConverterTest.convertWithGraphics2D(png, slim));
+            Benchmark.measure("LegacySkinConverter.convert, " + model, ITERATIONS * 100, () -> LegacySkinConverter.convert(pixels, 64, 64, slim));
+        }
+        Benchmark.measure("PngEncoder.encode", ITERATIONS, () -> PngEncoder.encode(legacyPixels, 64, 32));
+    }
+}
@@ -0,0 +1,155 @@
+package net.minecraft.launchwrapper.protocol;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Compares {@link LegacySkinConverter} and {@link PngEncoder} against the Graphics2D converter they replaced.
+ */
+public class LegacySkinConverterTest {
+    private static final int SKINS = 50;
+
+    @Test
+    public void opaqueSkinsMatchGraphics2D() throws IOException {
+        assertMatchesGraphics2D(new Random(1), false);
+    }
+
+    @Test
+    public void translucentSkinsMatchGraphics2D() throws IOException {
+        assertMatchesGraphics2D(new Random(2), true);
+    }
+
+    @Test
+    public void pngEncoderRoundTrips() throws IOException {
+        Random random = new Random(3);
+        int[] pixels = new int[64 * 32];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(PngEncoder.encode(pixels, 64, 32)));
+        assertEquals(64, decoded.getWidth());
+        assertEquals(32, decoded.getHeight());
+        assertArrayEquals(pixels, decoded.getRGB(0, 0, 64, 32, null, 0, 64));
+    }
+
+    private static void assertMatchesGraphics2D(Random random, boolean translucent) throws IOException {
+        for (int i = 0; i < SKINS; i++) {
+            for (int height : new int[] { 32, 64 }) {
+                for (boolean slim : new boolean[] { false, true }) {
+                    byte[] png = randomSkin(random, height, translucent);
+
+                    int[] expected = decode(convertWithGraphics2D(png, slim));
+                    BufferedImage skin = ImageIO.read(new ByteArrayInputStream(png));
+                    int[] pixels = skin.getRGB(0, 0, 64, height, null, 0, 64);
+                    int[] actual = decode(PngEncoder.encode(LegacySkinConverter.convert(pixels, 64, height, slim), 64, 32));
+
+                    for (int p = 0; p < expected.length; p++) {
+                        // Color of fully transparent pixels doesn't matter
+                        if (expected[p] >>> 24 == 0 && actual[p] >>> 24 == 0) {
+                            continue;
+                        }
+                        assertEquals("skin " + i + " height " + height + " slim " + slim + " pixel " + (p % 64) + "," + (p / 64),
+                                Integer.toHexString(expected[p]), Integer.toHexString(actual[p]));
+                    }
+                }
+            }
+        }
+    }
+
+    static byte[] randomSkin(Random random, int height, boolean translucent) throws IOException {
+        BufferedImage skin = new BufferedImage(64, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < 64; x++) {
+                int alpha = random.nextInt(3) == 0 ? 0 : translucent ? random.nextInt(256) : 255;
+                skin.setRGB(x, y, alpha << 24 | random.nextInt(0x1000000));
+            }
+        }
+        return toPng(skin);
+    }
+
+    private static int[] decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(64, image.getWidth());
+        assertEquals(32, image.getHeight());
+        return image.getRGB(0, 0, 64, 32, null, 0, 64);
+    }
+
+    private static byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", os);
+        return os.toByteArray();
+    }
+
+    /**
+     * The converter SkinURLConnection used before LegacySkinConverter.
+     */
+    static byte[] convertWithGraphics2D(byte[] png, boolean slim) throws IOException {
+        BufferedImage skin = ImageIO.read(new ByteArrayInputStream(png));
+        boolean tall = skin.getHeight() > 32;
+        BufferedImage movePart = null;
+        Graphics2D graphics = skin.createGraphics();
+        AlphaComposite alpha = AlphaComposite.getInstance(AlphaComposite.SRC_OVER);
+        graphics.setComposite(alpha);
+
+        if (slim) {
+            // Convert alex to steve.
+
+            // Stretch right arm.
+            movePart = skin.getSubimage(45, 16, 9, 16);
+            graphics.drawImage(movePart, 46, 16, null);
+            movePart = skin.getSubimage(49, 16, 2, 4);
+            graphics.drawImage(movePart, 50, 16, null);
+            movePart = skin.getSubimage(53, 20, 2, 12);
+            graphics.drawImage(movePart, 54, 20, null);
+
+            if (tall) {
+                // Stretch right sleeve.
+                movePart = skin.getSubimage(45, 32, 9, 16);
+                graphics.drawImage(movePart, 46, 32, null);
+                movePart = skin.getSubimage(49, 32, 2, 4);
+                graphics.drawImage(movePart, 50, 32, null);
+                movePart = skin.getSubimage(53, 36, 2, 12);
+                graphics.drawImage(movePart, 54, 36, null);
+
+                // Stretch left arm.
+                movePart = skin.getSubimage(37, 48, 9, 16);
+                graphics.drawImage(movePart, 38, 48, null);
+                movePart = skin.getSubimage(41, 48, 2, 4);
+                graphics.drawImage(movePart, 42, 32, null);
+                movePart = skin.getSubimage(45, 52, 2, 12);
+                graphics.drawImage(movePart, 46, 36, null);
+
+                // Stretch left sleeve.
+                movePart = skin.getSubimage(53, 48, 9, 16);
+                graphics.drawImage(movePart, 54, 48, null);
+                movePart = skin.getSubimage(57, 48, 2, 4);
+                graphics.drawImage(movePart, 58, 32, null);
+                movePart = skin.getSubimage(61, 52, 2, 12);
+                graphics.drawImage(movePart, 62, 36, null);
+            }
+        }
+
+        if (tall) {
+            // Flatten second layers.
+            movePart = skin.getSubimage(0, 32, 56, 16);
+            graphics.drawImage(movePart, 0, 16, null);
+        }
+
+        graphics.dispose();
+
+        // Crop
+        return toPng(skin.getSubimage(0, 0, 64, 32));
+    }
+}
@@ -0,0 +1,93 @@
+package net.minecraft.launchwrapper.utils.resources;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import net.minecraft.launchwrapper.IResourceTransformer;
+
+public class ResourcePipelineTest {
+
+    @Test
+    public void generatedResourcesAreCachedPerName() throws IOException {
+        MapDiskCache diskCache = new MapDiskCache();
+        Function<String, InputStream> missing = name -> null;
+
+        // First launch fills the disk cache
+        ResourcePipeline first = newPipeline(diskCache);
+        assertArrayEquals(bytes("generated a.txt"), read(first.getResourceAsStream("a.txt", missing)));
+        assertArrayEquals(bytes("generated b.txt"), read(first.getResourceAsStream("b.txt", missing)));
+
+        // Next launch only has the disk cache to go by
+        ResourcePipeline second = newPipeline(diskCache);
+        assertArrayEquals(bytes("generated b.txt"), read(second.getResourceAsStream("b.txt", missing)));
+        assertArrayEquals(bytes("generated a.txt"), read(second.getResourceAsStream("a.txt", missing)));
+    }
+
+    @Test
+    public void sameContentAtDifferentPathsIsCachedPerName() throws IOException {
+        MapDiskCache diskCache = new MapDiskCache();
+        Function<String, InputStream> same = name -> new ByteArrayInputStream(bytes("content"));
+
+        ResourcePipeline first = newPipeline(diskCache);
+        assertArrayEquals(bytes("content a.txt"), read(first.getResourceAsStream("a.txt", same)));
+
+        ResourcePipeline second = newPipeline(diskCache);
+        assertArrayEquals(bytes("content b.txt"), read(second.getResourceAsStream("b.txt", same)));
+    }
+
+    private static ResourcePipeline newPipeline(ResourceDiskCache diskCache) {
+        ResourcePipeline pipeline = new ResourcePipeline(1024);
+        pipeline.setDiskCache(diskCache);
+        pipeline.addTransformer(new PathTransformer());
+        return pipeline;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(InputStream stream) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            os.write(buffer, 0, read);
+        }
+        return os.toByteArray();
+    }
+
+    /**
+     * Output depends on the resource path, generates resources which don't exist.
+     */
+    private static class PathTransformer implements IResourceTransformer {
+        @Override
+        public byte[] transform(String resourcePath, byte[] original) {
+            String prefix = original == null ? "generated" : new String(original, StandardCharsets.UTF_8);
+            return bytes(prefix + " " + resourcePath);
+        }
+    }
+
+    private static class MapDiskCache implements ResourceDiskCache {
+        private final Map<String, byte[]> entries = new HashMap<>();
+
+        @Override
+        public byte[] get(String key, byte[] original) {
+            return entries.get(key);
+        }
+
+        @Override
+        public void put(String key, byte[] original, byte[] transformed) {
+            entries.put(key, transformed);
+        }
+    }
+}